@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+/**
+ * Exception to indicate that a call to the Kubernetes API was not made at all, e.g. because the discovery round deadline
+ * passed or the rate limiter was interrupted. It says nothing about the health of the API, so it is ignored by
+ * {@link ApiCircuitBreaker}.
+ */
+class ApiCallRejectedException
+        extends KubernetesClientException {
+    ApiCallRejectedException(String message) {
+        super(message);
+    }
+}
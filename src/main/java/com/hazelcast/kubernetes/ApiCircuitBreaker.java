@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops calling the Kubernetes API for a while after consecutive failures, so that discovery does not wait for the retries
+ * of calls to an API which is down.
+ * <p>
+ * The breaker is closed (calls pass) until {@code failureThreshold} calls in a row fail, then it is open (calls fail
+ * immediately) for the open time, after which it is half-open: a single call is let through as a probe, which closes the
+ * breaker if it succeeds or opens it again if it fails. Failures which show that the API is up (e.g. 403) do not count,
+ * neither do the calls which were not made at all ({@link ApiCallRejectedException}), e.g. after the round deadline.
+ */
+final class ApiCircuitBreaker {
+    /**
+     * Message of the exception thrown for the calls rejected by an open breaker.
+     */
+    static final String OPEN_MESSAGE = "Kubernetes API circuit breaker is open";
+
+    private static final ILogger LOGGER = Logger.getLogger(ApiCircuitBreaker.class);
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicLong openings = new AtomicLong();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    // guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInProgress;
+
+    /**
+     * @param failureThreshold number of failed calls in a row which open the breaker
+     * @param openSeconds      time for which the breaker stays open before a probe call is let through
+     */
+    ApiCircuitBreaker(int failureThreshold, int openSeconds) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+    }
+
+    /**
+     * @return the breaker or {@code null} if it is disabled, i.e. {@code failureThreshold} is {@code 0}
+     */
+    static ApiCircuitBreaker create(int failureThreshold, int openSeconds) {
+        return failureThreshold > 0 ? new ApiCircuitBreaker(failureThreshold, openSeconds) : null;
+    }
+
+    /**
+     * Returns {@code call} guarded by the breaker: it fails with {@link KubernetesClientException} without being made
+     * while the breaker is open.
+     */
+    <T> Callable<T> guarded(final Callable<T> call) {
+        return new Callable<T>() {
+            @Override
+            public T call()
+                    throws Exception {
+                State admittedIn = tryAcquire();
+                if (admittedIn == null) {
+                    rejectedCalls.incrementAndGet();
+                    throw new KubernetesClientException(OPEN_MESSAGE);
+                }
+                boolean probe = admittedIn == State.HALF_OPEN;
+                try {
+                    T result = call.call();
+                    onSuccess();
+                    return result;
+                } catch (ApiCallRejectedException e) {
+                    onNotCalled(probe);
+                    throw e;
+                } catch (Exception e) {
+                    if (RetryUtils.isRetryable(e, Collections.<String>emptyList())) {
+                        onFailure(probe);
+                    } else {
+                        onSuccess();
+                    }
+                    throw e;
+                }
+            }
+        };
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return number of times the breaker opened
+     */
+    long getOpenings() {
+        return openings.get();
+    }
+
+    long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ApiCircuitBreaker{state=%s, openings=%d, rejectedCalls=%d}", getState(), getOpenings(),
+                getRejectedCalls());
+    }
+
+    /**
+     * @return the state in which the call was admitted or {@code null} if it is rejected
+     */
+    private synchronized State tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                return null;
+            }
+            transition(State.HALF_OPEN, "probing the Kubernetes API with a single call");
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInProgress) {
+                return null;
+            }
+            probeInProgress = true;
+        }
+        return state;
+    }
+
+    private synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED, "the Kubernetes API responds again");
+        }
+    }
+
+    /**
+     * Lets another call probe the API if the probe was not made.
+     */
+    private synchronized void onNotCalled(boolean probe) {
+        if (probe && state == State.HALF_OPEN) {
+            probeInProgress = false;
+        }
+    }
+
+    private synchronized void onFailure(boolean probe) {
+        consecutiveFailures++;
+        if (probe && state == State.HALF_OPEN) {
+            open("the probe call failed");
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open(String.format("%d calls in a row failed", consecutiveFailures));
+        }
+    }
+
+    private void open(String reason) {
+        openedAtNanos = System.nanoTime();
+        openings.incrementAndGet();
+        transition(State.OPEN, String.format("%s, failing the calls for %d seconds", reason,
+                TimeUnit.NANOSECONDS.toSeconds(openNanos)));
+    }
+
+    private void transition(State newState, String reason) {
+        state = newState;
+        // only the probe is in progress in the half-open state, which is always left when it completes
+        probeInProgress = false;
+        String message = String.format("Kubernetes API circuit breaker is %s: %s", newState, reason);
+        if (newState == State.OPEN) {
+            LOGGER.warning(message);
+        } else {
+            LOGGER.info(message);
+        }
+    }
+}
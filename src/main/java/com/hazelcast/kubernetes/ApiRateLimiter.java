@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the rate (token bucket) and the number of concurrent calls to the Kubernetes API.
+ * <p>
+ * All the Hazelcast instances in the JVM which call the same Kubernetes master with the same limits share one limiter, so
+ * the limits apply to the whole JVM and not to every member separately.
+ */
+final class ApiRateLimiter {
+    private static final ConcurrentMap<List<Object>, ApiRateLimiter> SHARED_LIMITERS =
+            new ConcurrentHashMap<List<Object>, ApiRateLimiter>();
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final Semaphore concurrencyPermits;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    // guarded by this
+    private double tokens;
+    private long refilledAtNanos;
+
+    /**
+     * @param requestsPerSecond     maximum average rate of the calls, {@code 0} for no limit
+     * @param burst                 number of calls which can be made at once after an idle period, {@code 0} for
+     *                              {@code requestsPerSecond}
+     * @param maxConcurrentRequests maximum number of calls in progress at the same time, {@code 0} for no limit
+     */
+    ApiRateLimiter(int requestsPerSecond, int burst, int maxConcurrentRequests) {
+        this.permitsPerNano = requestsPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst > 0 ? burst : Math.max(1, requestsPerSecond);
+        this.concurrencyPermits = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests, true) : null;
+        this.tokens = this.burst;
+        this.refilledAtNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the limiter shared by the whole JVM for the given Kubernetes master and limits.
+     *
+     * @return the shared limiter or {@code null} if neither limit is set
+     */
+    static ApiRateLimiter shared(String kubernetesMaster, int requestsPerSecond, int burst, int maxConcurrentRequests) {
+        if (requestsPerSecond <= 0 && maxConcurrentRequests <= 0) {
+            return null;
+        }
+        List<Object> key = Arrays.<Object>asList(kubernetesMaster, requestsPerSecond, burst, maxConcurrentRequests);
+        ApiRateLimiter limiter = SHARED_LIMITERS.get(key);
+        if (limiter == null) {
+            ApiRateLimiter newLimiter = new ApiRateLimiter(requestsPerSecond, burst, maxConcurrentRequests);
+            limiter = SHARED_LIMITERS.putIfAbsent(key, newLimiter);
+            if (limiter == null) {
+                limiter = newLimiter;
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * Waits for a token and for a free concurrency slot, which must be given back with {@link #release()}.
+     *
+     * @param maxWaitMillis maximum time to wait, e.g. until the discovery round deadline, {@code 0} for no limit
+     * @return nanoseconds spent waiting
+     * @throws ApiCallRejectedException if the token or the slot would not be available within {@code maxWaitMillis},
+     *                                  in which case neither is taken
+     */
+    long acquire(long maxWaitMillis) {
+        long start = System.nanoTime();
+        long maxWaitNanos = maxWaitNanos(maxWaitMillis);
+        try {
+            waitForToken(maxWaitNanos);
+            if (concurrencyPermits != null) {
+                if (maxWaitMillis <= 0) {
+                    concurrencyPermits.acquire();
+                } else if (!concurrencyPermits.tryAcquire(maxWaitNanos - (System.nanoTime() - start), TimeUnit.NANOSECONDS)) {
+                    throw new ApiCallRejectedException(DiscoveryRound.DEADLINE_MESSAGE);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiCallRejectedException("Interrupted while waiting for the Kubernetes API rate limiter");
+        }
+        return recordWait(System.nanoTime() - start);
+    }
+
+    /**
+     * Waits for a token only, for long-running calls (e.g. watches) which must not hold a concurrency slot.
+     *
+     * @param maxWaitMillis maximum time to wait, {@code 0} for no limit
+     * @return nanoseconds spent waiting
+     * @throws ApiCallRejectedException if the token would not be available within {@code maxWaitMillis}
+     */
+    long acquireToken(long maxWaitMillis) {
+        long start = System.nanoTime();
+        try {
+            waitForToken(maxWaitNanos(maxWaitMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiCallRejectedException("Interrupted while waiting for the Kubernetes API rate limiter");
+        }
+        return recordWait(System.nanoTime() - start);
+    }
+
+    void release() {
+        if (concurrencyPermits != null) {
+            concurrencyPermits.release();
+        }
+    }
+
+    long getAcquired() {
+        return acquired.get();
+    }
+
+    /**
+     * @return number of calls which had to wait in the limiter
+     */
+    long getWaited() {
+        return waited.get();
+    }
+
+    long getWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ApiRateLimiter{acquired=%d, waited=%d, waitMillis=%d}", getAcquired(), getWaited(),
+                getWaitMillis());
+    }
+
+    private static long maxWaitNanos(long maxWaitMillis) {
+        return maxWaitMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(maxWaitMillis) : Long.MAX_VALUE;
+    }
+
+    private void waitForToken(long maxWaitNanos)
+            throws InterruptedException {
+        if (permitsPerNano <= 0) {
+            return;
+        }
+        long delayNanos = reserveToken(maxWaitNanos);
+        if (delayNanos < 0) {
+            throw new ApiCallRejectedException(DiscoveryRound.DEADLINE_MESSAGE);
+        }
+        if (delayNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+    }
+
+    /**
+     * Takes a token, going into debt if there is none, so that the callers are served in order without busy waiting.
+     *
+     * @return nanoseconds to wait until the taken token is available or {@code -1} if it is longer than
+     * {@code maxWaitNanos}, in which case no token is taken
+     */
+    private synchronized long reserveToken(long maxWaitNanos) {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAtNanos) * permitsPerNano);
+        refilledAtNanos = now;
+        long delayNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+        if (delayNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return delayNanos;
+    }
+
+    private long recordWait(long nanos) {
+        acquired.incrementAndGet();
+        // sub-millisecond delays are just the cost of the bookkeeping
+        if (nanos >= TimeUnit.MILLISECONDS.toNanos(1)) {
+            waited.incrementAndGet();
+            waitNanos.addAndGet(nanos);
+        }
+        return nanos;
+    }
+}
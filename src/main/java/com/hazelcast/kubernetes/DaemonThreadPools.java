@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the thread pools of the discovery. Their threads are named daemon threads, which never keep the JVM alive, and
+ * they are not kept around when idle, as discovery rounds are rare.
+ */
+final class DaemonThreadPools {
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    private DaemonThreadPools() {
+    }
+
+    /**
+     * Creates a pool running at most {@code threads} tasks at a time, queueing the others.
+     */
+    static ExecutorService newFixedThreadPool(String name, int threads) {
+        return newThreadPool(name, threads, new LinkedBlockingQueue<Runnable>());
+    }
+
+    /**
+     * Creates a pool running at most {@code maxThreads} tasks at a time, rejecting the others with
+     * {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    static ExecutorService newBoundedThreadPool(String name, int maxThreads) {
+        return newThreadPool(name, maxThreads, new SynchronousQueue<Runnable>());
+    }
+
+    /**
+     * Creates a single thread pool running delayed tasks, which are removed from the pool as soon as they are cancelled.
+     */
+    static ScheduledExecutorService newScheduledThreadPool(String name) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory(name));
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setKeepAliveTime(IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService newThreadPool(String name, int threads, BlockingQueue<Runnable> queue) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                queue, new DaemonThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class DaemonThreadFactory
+            implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, String.format("%s-%d", name, threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
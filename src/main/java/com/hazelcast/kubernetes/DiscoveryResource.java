@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+/**
+ * Kubernetes resource collection (PODs or endpoints, optionally narrowed by a selector) the endpoints are discovered from.
+ */
+final class DiscoveryResource {
+    private static final String CORE_API = "api/v1";
+    private static final String DISCOVERY_API = "apis/discovery.k8s.io/v1";
+
+    private final String apiPath;
+    private final String name;
+    private final String selector;
+    private final String otherSelector;
+
+    private DiscoveryResource(String apiPath, String name, String selector, String otherSelector) {
+        this.apiPath = apiPath;
+        this.name = name;
+        this.selector = selector;
+        this.otherSelector = otherSelector;
+    }
+
+    static DiscoveryResource pods() {
+        return new DiscoveryResource(CORE_API, "pods", null, null);
+    }
+
+    static DiscoveryResource podsByLabel(String podLabel, String podLabelValue) {
+        return new DiscoveryResource(CORE_API, "pods", String.format("labelSelector=%s=%s", podLabel, podLabelValue), null);
+    }
+
+    static DiscoveryResource endpoints() {
+        return new DiscoveryResource(CORE_API, "endpoints", null, null);
+    }
+
+    static DiscoveryResource endpointsByLabel(String serviceLabel, String serviceLabelValue) {
+        return new DiscoveryResource(CORE_API, "endpoints",
+                String.format("labelSelector=%s=%s", serviceLabel, serviceLabelValue),
+                String.format("labelSelector=%s!=%s", serviceLabel, serviceLabelValue));
+    }
+
+    static DiscoveryResource endpointsByName(String endpointName) {
+        return new DiscoveryResource(CORE_API, "endpoints", String.format("fieldSelector=metadata.name=%s", endpointName),
+                String.format("fieldSelector=metadata.name!=%s", endpointName));
+    }
+
+    static DiscoveryResource endpointSlices() {
+        return new DiscoveryResource(DISCOVERY_API, "endpointslices", null, null);
+    }
+
+    /**
+     * EndpointSlices inherit the labels of their service, so the same label selector can be used as for Endpoints.
+     */
+    static DiscoveryResource endpointSlicesByLabel(String serviceLabel, String serviceLabelValue) {
+        return new DiscoveryResource(DISCOVERY_API, "endpointslices",
+                String.format("labelSelector=%s=%s", serviceLabel, serviceLabelValue),
+                String.format("labelSelector=%s!=%s", serviceLabel, serviceLabelValue));
+    }
+
+    static DiscoveryResource endpointSlicesByServiceName(String serviceName) {
+        return new DiscoveryResource(DISCOVERY_API, "endpointslices",
+                String.format("labelSelector=%s=%s", EndpointSlices.SERVICE_NAME_LABEL, serviceName),
+                String.format("labelSelector=%s!=%s", EndpointSlices.SERVICE_NAME_LABEL, serviceName));
+    }
+
+    String getApiPath() {
+        return apiPath;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getSelector() {
+        return selector;
+    }
+
+    /**
+     * @return selector of all the resources of the same kind which are not selected by {@link #getSelector()}
+     */
+    String getOtherSelector() {
+        return otherSelector;
+    }
+
+    boolean isPods() {
+        return "pods".equals(name);
+    }
+
+    boolean isEndpointSlices() {
+        return "endpointslices".equals(name);
+    }
+
+    @Override
+    public String toString() {
+        return selector == null ? name : String.format("%s?%s", name, selector);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Context of a single discovery round, i.e. of a single call to one of the public {@link KubernetesClient} methods.
+ * <p>
+ * Counts the Kubernetes API calls made in the round and the response bytes received (on the wire and after decompression),
+ * as well as the hits and misses of the public address cache, so that the cost of discovery can be logged and checked in
+ * tests.
+ * <p>
+ * A round may have a deadline, after which the API calls still in progress are no longer waited for.
+ */
+final class DiscoveryRound {
+    /**
+     * Message of the exceptions thrown for the calls which would exceed the deadline.
+     */
+    static final String DEADLINE_MESSAGE = "Discovery round deadline exceeded";
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadlineNanos;
+    private final AtomicInteger apiCalls = new AtomicInteger();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private final AtomicLong rateLimiterWaitNanos = new AtomicLong();
+    private final AtomicInteger publicAddressCacheHits = new AtomicInteger();
+    private final AtomicInteger publicAddressCacheMisses = new AtomicInteger();
+
+    DiscoveryRound() {
+        this(0);
+    }
+
+    /**
+     * @param timeoutMillis time limit of the round, {@code 0} for no limit
+     */
+    DiscoveryRound(long timeoutMillis) {
+        this.deadlineNanos = timeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : NO_DEADLINE;
+    }
+
+    void apiCall() {
+        apiCalls.incrementAndGet();
+    }
+
+    void publicAddressCacheHit() {
+        publicAddressCacheHits.incrementAndGet();
+    }
+
+    void publicAddressCacheMiss() {
+        publicAddressCacheMisses.incrementAndGet();
+    }
+
+    AtomicLong receivedBytesCounter() {
+        return receivedBytes;
+    }
+
+    AtomicLong decodedBytesCounter() {
+        return decodedBytes;
+    }
+
+    AtomicLong rateLimiterWaitNanosCounter() {
+        return rateLimiterWaitNanos;
+    }
+
+    int getApiCalls() {
+        return apiCalls.get();
+    }
+
+    /**
+     * @return response bytes received on the wire, i.e. compressed if the responses were compressed
+     */
+    long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * @return response bytes after decompression
+     */
+    long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    /**
+     * @return time the API calls spent waiting in the rate limiter
+     */
+    long getRateLimiterWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(rateLimiterWaitNanos.get());
+    }
+
+    int getPublicAddressCacheHits() {
+        return publicAddressCacheHits.get();
+    }
+
+    int getPublicAddressCacheMisses() {
+        return publicAddressCacheMisses.get();
+    }
+
+    boolean hasDeadline() {
+        return deadlineNanos != NO_DEADLINE;
+    }
+
+    /**
+     * @return milliseconds left until the deadline, not less than {@code 0}
+     */
+    long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Returns the connect and read timeout of a single API call, so that a hung connection cannot outlast the round.
+     *
+     * @return milliseconds left until the deadline (at least {@code 1}, as {@code 0} means no timeout for the JDK) or
+     * {@code 0} if the round has no deadline
+     */
+    int callTimeoutMillis() {
+        if (!hasDeadline()) {
+            return 0;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingMillis()));
+    }
+
+    /**
+     * Waits for the result of {@code future} until the deadline, rethrowing its failure as it was thrown.
+     */
+    <T> T join(CompletableFuture<T> future) {
+        try {
+            if (!hasDeadline()) {
+                return future.join();
+            }
+            return future.get(remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (CompletionException e) {
+            throw asRuntimeException(e.getCause(), e);
+        } catch (ExecutionException e) {
+            throw asRuntimeException(e.getCause(), e);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new KubernetesClientException(DEADLINE_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KubernetesClientException("Interrupted while waiting for the Kubernetes API", e);
+        }
+    }
+
+    /**
+     * Fails the calls which would start after the deadline, as no one waits for their results anymore.
+     *
+     * @throws ApiCallRejectedException if the deadline has passed
+     */
+    void checkDeadline() {
+        if (hasDeadline() && remainingMillis() == 0) {
+            throw new ApiCallRejectedException(DEADLINE_MESSAGE);
+        }
+    }
+
+    private static RuntimeException asRuntimeException(Throwable cause, Exception e) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new KubernetesClientException("Failure in calling the Kubernetes API", e);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DiscoveryRound{apiCalls=%d, receivedBytes=%d, decodedBytes=%d, publicAddressCacheHits=%d, "
+                        + "publicAddressCacheMisses=%d, rateLimiterWaitMillis=%d}", getApiCalls(), getReceivedBytes(),
+                getDecodedBytes(), getPublicAddressCacheHits(), getPublicAddressCacheMisses(), getRateLimiterWaitMillis());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last successfully discovered endpoints, refreshed in the background at a fixed interval.
+ * <p>
+ * Discovery is called on the Hazelcast join and split-brain threads, which this way get the last-known-good endpoints
+ * immediately instead of waiting for the Kubernetes API (and its retries). If refreshing keeps failing, the endpoints are
+ * served until they get older than the maximum staleness, after which {@link #endpoints()} returns {@code null} so that
+ * callers fall back to calling the Kubernetes API themselves.
+ */
+final class EndpointRefresher
+        implements Runnable {
+    private static final ILogger LOGGER = Logger.getLogger(EndpointRefresher.class);
+
+    private final Callable<List<Endpoint>> discovery;
+    private final long refreshIntervalMillis;
+    private final long maxStalenessNanos;
+
+    private volatile boolean running;
+    private volatile Snapshot snapshot;
+    private Thread thread;
+
+    /**
+     * @param discovery              discovers the endpoints with the Kubernetes API
+     * @param refreshIntervalSeconds time between the refreshes
+     * @param maxStalenessSeconds    maximum age of the served endpoints, {@code 0} for no limit
+     */
+    EndpointRefresher(Callable<List<Endpoint>> discovery, int refreshIntervalSeconds, int maxStalenessSeconds) {
+        this.discovery = discovery;
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(refreshIntervalSeconds);
+        this.maxStalenessNanos = maxStalenessSeconds > 0 ? TimeUnit.SECONDS.toNanos(maxStalenessSeconds) : Long.MAX_VALUE;
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this, "hazelcast-kubernetes-refresher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Returns the last discovered endpoints.
+     *
+     * @return the endpoints or {@code null} if none were discovered yet or they are older than the maximum staleness
+     */
+    List<Endpoint> endpoints() {
+        Snapshot current = snapshot;
+        if (current == null || System.nanoTime() - current.discoveredAtNanos > maxStalenessNanos) {
+            return null;
+        }
+        return current.endpoints;
+    }
+
+    /**
+     * Replaces the snapshot with endpoints discovered outside of the refresher, e.g. by a caller which found no snapshot.
+     */
+    void update(List<Endpoint> endpoints) {
+        update(endpoints, 0);
+    }
+
+    /**
+     * Replaces the snapshot with endpoints discovered {@code ageMillis} ago, e.g. loaded from a previous run.
+     */
+    void update(List<Endpoint> endpoints, long ageMillis) {
+        snapshot = new Snapshot(endpoints, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ageMillis));
+    }
+
+    @Override
+    public void run() {
+        boolean failureLogged = false;
+        while (running) {
+            try {
+                update(discovery.call());
+                failureLogged = false;
+            } catch (Exception e) {
+                if (!failureLogged) {
+                    LOGGER.warning(String.format("Refreshing endpoints with Kubernetes API failed, serving the last known "
+                            + "endpoints: %s", e.getMessage()));
+                    failureLogged = true;
+                }
+                LOGGER.finest(e);
+            }
+            try {
+                Thread.sleep(refreshIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        private final List<Endpoint> endpoints;
+        private final long discoveredAtNanos;
+
+        private Snapshot(List<Endpoint> endpoints, long discoveredAtNanos) {
+            this.endpoints = endpoints;
+            this.discoveredAtNanos = discoveredAtNanos;
+        }
+    }
+}
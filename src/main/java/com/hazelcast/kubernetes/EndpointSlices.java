@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.json.JsonArray;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.internal.json.JsonValue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts {@code discovery.k8s.io/v1} EndpointSlices into the format of the legacy {@code v1} Endpoints objects.
+ * <p>
+ * A service may be backed by many slices, so all slices of one service (identified by the
+ * {@code kubernetes.io/service-name} label) are merged into a single Endpoints object, with one subset per slice. An address
+ * present in more than one slice of the same service (possible while an endpoint is moved between slices) is kept once.
+ * <p>
+ * Endpoint conditions are mapped the same way as the Endpoints controller does it: ready endpoints become
+ * {@code addresses}, terminating endpoints which are no longer serving are dropped and all the other endpoints become
+ * {@code notReadyAddresses}.
+ *
+ * @see <a href="https://kubernetes.io/docs/concepts/services-networking/endpoint-slices/">EndpointSlices</a>
+ */
+final class EndpointSlices {
+    static final String SERVICE_NAME_LABEL = "kubernetes.io/service-name";
+
+    private EndpointSlices() {
+    }
+
+    /**
+     * @param slices raw EndpointSlice objects
+     * @return Endpoints objects, one per service
+     */
+    static JsonArray toEndpoints(Iterable<JsonValue> slices) {
+        Map<String, JsonArray> subsetsByService = new LinkedHashMap<String, JsonArray>();
+        Map<String, Set<String>> ipsByService = new LinkedHashMap<String, Set<String>>();
+        for (JsonValue slice : slices) {
+            String service = serviceName(slice.asObject());
+            if (!subsetsByService.containsKey(service)) {
+                subsetsByService.put(service, new JsonArray());
+                ipsByService.put(service, new HashSet<String>());
+            }
+            subsetsByService.get(service).add(toSubset(slice.asObject(), ipsByService.get(service)));
+        }
+
+        JsonArray result = new JsonArray();
+        for (Map.Entry<String, JsonArray> entry : subsetsByService.entrySet()) {
+            result.add(new JsonObject()
+                    .add("metadata", new JsonObject().add("name", entry.getKey()))
+                    .add("subsets", entry.getValue()));
+        }
+        return result;
+    }
+
+    private static JsonObject toSubset(JsonObject slice, Set<String> knownIps) {
+        JsonArray addresses = new JsonArray();
+        JsonArray notReadyAddresses = new JsonArray();
+        for (JsonValue endpoint : toJsonArray(slice.get("endpoints"))) {
+            JsonObject conditions = toJsonObject(endpoint.asObject().get("conditions"));
+            // Unknown conditions must be interpreted as ready and serving.
+            boolean ready = conditions.getBoolean("ready", true);
+            boolean serving = conditions.getBoolean("serving", ready);
+            boolean terminating = conditions.getBoolean("terminating", false);
+            if (terminating && !serving) {
+                continue;
+            }
+            for (JsonValue ip : toJsonArray(endpoint.asObject().get("addresses"))) {
+                if (!knownIps.add(ip.asString())) {
+                    continue;
+                }
+                if (ready) {
+                    addresses.add(toAddress(endpoint.asObject(), ip));
+                } else {
+                    notReadyAddresses.add(toAddress(endpoint.asObject(), ip));
+                }
+            }
+        }
+
+        JsonArray ports = new JsonArray();
+        for (JsonValue port : toJsonArray(slice.get("ports"))) {
+            // A port without number means all ports, which cannot be used to connect to Hazelcast.
+            JsonValue portNumber = port.asObject().get("port");
+            if (portNumber != null && portNumber.isNumber()) {
+                ports.add(new JsonObject().add("port", portNumber));
+            }
+        }
+
+        return new JsonObject()
+                .add("addresses", addresses)
+                .add("notReadyAddresses", notReadyAddresses)
+                .add("ports", ports);
+    }
+
+    private static JsonObject toAddress(JsonObject endpoint, JsonValue ip) {
+        JsonObject address = new JsonObject().add("ip", ip);
+        for (String field : new String[]{"nodeName", "hostname", "targetRef"}) {
+            JsonValue value = endpoint.get(field);
+            if (value != null) {
+                address.add(field, value);
+            }
+        }
+        return address;
+    }
+
+    private static String serviceName(JsonObject slice) {
+        JsonObject metadata = slice.get("metadata").asObject();
+        JsonValue service = toJsonObject(metadata.get("labels")).get(SERVICE_NAME_LABEL);
+        // Slices not managed by the EndpointSlice controller may have no service, then the slice stands for itself.
+        return service != null ? service.asString() : metadata.get("name").asString();
+    }
+
+    private static JsonObject toJsonObject(JsonValue jsonValue) {
+        if (jsonValue == null || jsonValue.isNull()) {
+            return new JsonObject();
+        }
+        return jsonValue.asObject();
+    }
+
+    private static Iterable<JsonValue> toJsonArray(JsonValue jsonValue) {
+        if (jsonValue == null || jsonValue.isNull()) {
+            return Collections.<JsonValue>emptyList();
+        }
+        return jsonValue.asArray();
+    }
+}
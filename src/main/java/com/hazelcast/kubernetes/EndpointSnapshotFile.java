@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.kubernetes.KubernetesClient.EndpointAddress;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Last discovered endpoints stored in a file (e.g. on an {@code emptyDir} volume), so that a restarted member can use them
+ * to join the cluster before the Kubernetes API responds.
+ * <p>
+ * The file is written to a temporary file first and then moved over the previous one, so that readers never see a
+ * partially written snapshot. The format is a compact binary one, read without any parsing overhead.
+ */
+final class EndpointSnapshotFile {
+    /**
+     * "hzk" followed by the format version.
+     */
+    private static final int MAGIC = 0x687a6b01;
+    private static final int NO_PORT = -1;
+    private static final int HEADER_BYTES = 8;
+    /**
+     * Bytes of an endpoint without IPs, public address and properties: the smallest one which can be stored.
+     */
+    private static final int MIN_ENDPOINT_BYTES = 11;
+
+    private static final ILogger LOGGER = Logger.getLogger(EndpointSnapshotFile.class);
+
+    private final File file;
+
+    // guarded by this
+    private List<Endpoint> storedEndpoints;
+
+    EndpointSnapshotFile(String path) {
+        this.file = new File(path);
+    }
+
+    /**
+     * @return the stored endpoints or {@code null} if there is no snapshot or it cannot be read
+     */
+    List<Endpoint> load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC) {
+                LOGGER.warning(String.format("Ignoring endpoint snapshot '%s' in unknown format", file));
+                return null;
+            }
+            int count = in.readInt();
+            if (count < 0 || count > (file.length() - HEADER_BYTES) / MIN_ENDPOINT_BYTES) {
+                LOGGER.warning(String.format("Ignoring corrupted endpoint snapshot '%s' with %d endpoints", file, count));
+                return null;
+            }
+            List<Endpoint> endpoints = new ArrayList<Endpoint>(count);
+            for (int i = 0; i < count; i++) {
+                endpoints.add(readEndpoint(in));
+            }
+            return endpoints;
+        } catch (IOException e) {
+            LOGGER.warning(String.format("Cannot read endpoint snapshot '%s': %s", file, e.getMessage()));
+            return null;
+        } catch (RuntimeException e) {
+            // a corrupted snapshot must never prevent the member from starting
+            LOGGER.warning(String.format("Cannot read endpoint snapshot '%s': %s", file, e));
+            return null;
+        } finally {
+            IOUtil.closeResource(in);
+        }
+    }
+
+    /**
+     * @return milliseconds since the snapshot was stored
+     */
+    long ageMillis() {
+        return Math.max(0, System.currentTimeMillis() - file.lastModified());
+    }
+
+    /**
+     * Replaces the stored snapshot with {@code endpoints}. If they are equal to the endpoints already stored by this
+     * instance, the file is not written again, only its modification time is updated, so that the snapshot does not turn
+     * stale while the endpoints do not change.
+     */
+    synchronized void store(List<Endpoint> endpoints) {
+        if (endpoints.equals(storedEndpoints) && file.setLastModified(System.currentTimeMillis())) {
+            return;
+        }
+        storedEndpoints = null;
+        File tempFile = null;
+        try {
+            File directory = file.getAbsoluteFile().getParentFile();
+            tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+            write(tempFile, endpoints);
+            move(tempFile, file);
+            storedEndpoints = new ArrayList<Endpoint>(endpoints);
+        } catch (IOException e) {
+            LOGGER.warning(String.format("Cannot store endpoint snapshot '%s': %s", file, e.getMessage()));
+            if (tempFile != null && !tempFile.delete()) {
+                LOGGER.finest(String.format("Cannot delete temporary file '%s'", tempFile));
+            }
+        }
+    }
+
+    private static void write(File target, List<Endpoint> endpoints)
+            throws IOException {
+        FileOutputStream fileOut = new FileOutputStream(target);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            out.writeInt(MAGIC);
+            out.writeInt(endpoints.size());
+            for (Endpoint endpoint : endpoints) {
+                writeEndpoint(out, endpoint);
+            }
+            out.flush();
+            // The snapshot must be on the disk before it replaces the previous one.
+            fileOut.getFD().sync();
+        } finally {
+            IOUtil.closeResource(fileOut);
+        }
+    }
+
+    private static void move(File source, File target)
+            throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeEndpoint(DataOutputStream out, Endpoint endpoint)
+            throws IOException {
+        writeAddress(out, endpoint.getPrivateAddress());
+        out.writeBoolean(endpoint.getPublicAddress() != null);
+        if (endpoint.getPublicAddress() != null) {
+            writeAddress(out, endpoint.getPublicAddress());
+        }
+        out.writeBoolean(endpoint.isReady());
+        Map<String, String> properties = endpoint.getAdditionalProperties();
+        out.writeInt(properties.size());
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            out.writeUTF(property.getKey());
+            writeString(out, property.getValue());
+        }
+    }
+
+    private static Endpoint readEndpoint(DataInputStream in)
+            throws IOException {
+        EndpointAddress privateAddress = readAddress(in);
+        EndpointAddress publicAddress = in.readBoolean() ? readAddress(in) : null;
+        boolean ready = in.readBoolean();
+        int propertyCount = in.readInt();
+        Map<String, String> properties = Collections.emptyMap();
+        if (propertyCount > 0) {
+            properties = new HashMap<String, String>();
+            for (int i = 0; i < propertyCount; i++) {
+                properties.put(in.readUTF(), readString(in));
+            }
+        }
+        return new Endpoint(privateAddress, publicAddress, ready, properties);
+    }
+
+    private static void writeAddress(DataOutputStream out, EndpointAddress address)
+            throws IOException {
+        writeString(out, address.getIp());
+        out.writeInt(address.getPort() != null ? address.getPort() : NO_PORT);
+    }
+
+    private static EndpointAddress readAddress(DataInputStream in)
+            throws IOException {
+        String ip = readString(in);
+        int port = in.readInt();
+        return new EndpointAddress(ip, port != NO_PORT ? port : null);
+    }
+
+    private static void writeString(DataOutputStream out, String value)
+            throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in)
+            throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
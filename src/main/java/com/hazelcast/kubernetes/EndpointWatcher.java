@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.internal.json.JsonValue;
+import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps an in-memory snapshot of the endpoints behind one {@link DiscoveryResource} up to date.
+ * <p>
+ * The snapshot is filled with a single LIST call and then kept current by a long-lived Kubernetes watch, which is resumed
+ * from the last seen {@code resourceVersion} every time the server closes it. As bookmarks are requested, a healthy watch
+ * always delivers events, so a watch which ends without any is resumed only after a backoff, not to call the Kubernetes API
+ * in a loop (e.g. when a proxy closes the watches right away). If the watch breaks, the snapshot is dropped
+ * and {@link #endpoints()} returns {@code null} until the LIST and the watch succeed again, so that callers can fall back
+ * to polling in the meantime.
+ * <p>
+ * The watch events only update the private addresses, which needs no Kubernetes API calls. The public addresses are
+ * looked up lazily, once per snapshot, when {@link #endpoints()} is called, so that a burst of events (e.g. a rolling
+ * restart) does not cause a burst of Service and Node lookups.
+ */
+final class EndpointWatcher
+        implements Runnable {
+    static final int WATCH_TIMEOUT_SECONDS = 300;
+
+    private static final int MUST_RELIST = -1;
+
+    private static final ILogger LOGGER = Logger.getLogger(EndpointWatcher.class);
+
+    private final KubernetesClient client;
+    private final DiscoveryResource resource;
+
+    // accessed only by the watcher thread
+    private final Map<String, JsonValue> items = new LinkedHashMap<String, JsonValue>();
+    private String resourceVersion;
+    private int failureCount;
+    private int emptyWatchCount;
+
+    private volatile boolean running;
+    private volatile Snapshot snapshot;
+    private volatile RestClient.LineStream stream;
+    private Thread thread;
+
+    EndpointWatcher(KubernetesClient client, DiscoveryResource resource) {
+        this.client = client;
+        this.resource = resource;
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this, "hazelcast-kubernetes-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        closeStream();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Returns the current snapshot of endpoints.
+     *
+     * @return the endpoints or {@code null} if the watcher is not in sync with the Kubernetes API
+     */
+    List<Endpoint> endpoints() {
+        Snapshot current = snapshot;
+        return current != null ? current.endpoints() : null;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                if (resourceVersion == null) {
+                    relist();
+                }
+                int events = watch();
+                failureCount = 0;
+                if (events == 0) {
+                    handleEmptyWatch();
+                } else if (events > 0) {
+                    emptyWatchCount = 0;
+                }
+            } catch (Exception e) {
+                if (running) {
+                    handleFailure(e);
+                }
+            } finally {
+                closeStream();
+            }
+        }
+    }
+
+    private void relist() {
+        JsonObject list = client.list(resource);
+        items.clear();
+        for (JsonValue item : toJsonArray(list.get("items"))) {
+            items.put(name(item), item);
+        }
+        resourceVersion = resourceVersion(list);
+        publish();
+        LOGGER.fine(String.format("Listed %s, watching from resourceVersion %s", resource, resourceVersion));
+    }
+
+    /**
+     * @return number of the events which moved the watch forward or {@link #MUST_RELIST} if the watch cannot be continued,
+     * in which case the resources are listed again right away
+     */
+    private int watch() {
+        RestClient.LineStream watchStream = client.watch(resource, resourceVersion, WATCH_TIMEOUT_SECONDS);
+        stream = watchStream;
+        int events = 0;
+        boolean inSync = true;
+        String line = watchStream.readLine();
+        while (running && inSync && line != null) {
+            if (!line.isEmpty()) {
+                inSync = onEvent(Json.parse(line).asObject());
+                if (inSync) {
+                    events++;
+                }
+            }
+            line = inSync ? watchStream.readLine() : null;
+        }
+        return inSync ? events : MUST_RELIST;
+    }
+
+    /**
+     * Applies a single watch event to the snapshot.
+     *
+     * @return {@code false} if the watch cannot be continued and the resources must be listed again
+     */
+    private boolean onEvent(JsonObject event) {
+        String type = event.get("type").asString();
+        JsonValue object = event.get("object");
+        if ("ERROR".equals(type)) {
+            // Usually "410 Gone", the resourceVersion is too old and the whole list must be fetched again.
+            LOGGER.fine(String.format("Watch of %s returned error, relisting: %s", resource, object));
+            resourceVersion = null;
+            return false;
+        }
+        resourceVersion = resourceVersion(object.asObject());
+        if ("ADDED".equals(type) || "MODIFIED".equals(type)) {
+            items.put(name(object), object);
+            publish();
+        } else if ("DELETED".equals(type)) {
+            items.remove(name(object));
+            publish();
+        }
+        // "BOOKMARK" only moves the resourceVersion forward
+        return true;
+    }
+
+    private void publish() {
+        List<JsonValue> currentItems = new ArrayList<JsonValue>(items.values());
+        snapshot = new Snapshot(currentItems, client.privateEndpoints(resource, currentItems));
+    }
+
+    private void handleFailure(Exception e) {
+        snapshot = null;
+        resourceVersion = null;
+        failureCount++;
+        long waitIntervalMs = RetryUtils.waitIntervalForRetry(e, failureCount);
+        if (failureCount == 1) {
+            LOGGER.warning(String.format("Watching %s with Kubernetes API failed, falling back to polling: %s",
+                    resource, e.getMessage()));
+        }
+        LOGGER.finest(e);
+        pause(waitIntervalMs);
+    }
+
+    private void handleEmptyWatch() {
+        emptyWatchCount++;
+        long waitIntervalMs = RetryUtils.backoffIntervalForRetry(emptyWatchCount);
+        LOGGER.fine(String.format("Watch of %s ended without events, watching again in %d ms", resource, waitIntervalMs));
+        pause(waitIntervalMs);
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeStream() {
+        RestClient.LineStream current = stream;
+        if (current != null) {
+            stream = null;
+            current.close();
+        }
+    }
+
+    /**
+     * Items of the resource at one point of the watch, with the endpoints looked up from them when first needed.
+     */
+    private final class Snapshot {
+        private final List<JsonValue> items;
+        private final List<Endpoint> privateEndpoints;
+        // guarded by this
+        private List<Endpoint> endpoints;
+
+        private Snapshot(List<JsonValue> items, List<Endpoint> privateEndpoints) {
+            this.items = items;
+            this.privateEndpoints = privateEndpoints;
+        }
+
+        private synchronized List<Endpoint> endpoints() {
+            if (endpoints == null) {
+                endpoints = client.withPublicAddresses(resource, privateEndpoints, items);
+            }
+            return endpoints;
+        }
+    }
+
+    private static String name(JsonValue item) {
+        return item.asObject().get("metadata").asObject().get("name").asString();
+    }
+
+    private static String resourceVersion(JsonObject object) {
+        return object.get("metadata").asObject().get("resourceVersion").asString();
+    }
+
+    private static Iterable<JsonValue> toJsonArray(JsonValue jsonValue) {
+        if (jsonValue == null || jsonValue.isNull()) {
+            return Collections.<JsonValue>emptyList();
+        }
+        return jsonValue.asArray();
+    }
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.kubernetes;
 
 import com.hazelcast.kubernetes.KubernetesConfig.DiscoveryMode;
+import com.hazelcast.kubernetes.KubernetesConfig.ReadConsistency;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.discovery.AbstractDiscoveryStrategy;
 import com.hazelcast.spi.discovery.DiscoveryNode;
@@ -28,6 +29,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_PAGE_SIZE;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_READ_CONSISTENCY;
+
 final class HazelcastKubernetesDiscoveryStrategy
         extends AbstractDiscoveryStrategy {
     private final KubernetesClient client;
@@ -41,6 +45,11 @@ final class HazelcastKubernetesDiscoveryStrategy
 
         config = new KubernetesConfig(properties);
         logger.info(config.toString());
+        if (config.getKubernetesApiReadConsistency() == ReadConsistency.ANY && config.getKubernetesApiPageSize() > 0) {
+            logger.warning(String.format("Kubernetes API servers older than 1.31 ignore '%s' when '%s' is '%s', "
+                            + "PODs are then listed at once", KUBERNETES_API_PAGE_SIZE.key(),
+                    KUBERNETES_API_READ_CONSISTENCY.key(), ReadConsistency.ANY));
+        }
 
         client = buildKubernetesClient(config);
 
@@ -51,15 +60,44 @@ final class HazelcastKubernetesDiscoveryStrategy
             endpointResolver = new KubernetesApiEndpointResolver(logger, config.getServiceName(), config.getServicePort(),
                     config.getServiceLabelName(), config.getServiceLabelValue(),
                     config.getPodLabelName(), config.getPodLabelValue(),
-                    config.isResolveNotReadyAddresses(), client);
+                    config.isResolveNotReadyAddresses(), client)
+                    .withWatch(config.isKubernetesApiWatch())
+                    .withRefresh(config.getKubernetesApiRefreshIntervalSeconds(), config.getKubernetesApiMaxStalenessSeconds())
+                    .withSnapshotFile(config.getKubernetesApiSnapshotFile())
+                    .withFallback(buildFallbackResolver(logger, config));
         }
 
         logger.info("Kubernetes Discovery activated with mode: " + config.getMode().name());
     }
 
+    private static EndpointResolver buildFallbackResolver(ILogger logger, KubernetesConfig config) {
+        String fallbackServiceDns = config.getKubernetesApiFallbackServiceDns();
+        if (fallbackServiceDns == null || fallbackServiceDns.isEmpty()) {
+            return null;
+        }
+        return new DnsEndpointResolver(logger, fallbackServiceDns, config.getServicePort(), config.getServiceDnsTimeout());
+    }
+
     private static KubernetesClient buildKubernetesClient(KubernetesConfig config) {
         return new KubernetesClient(config.getNamespace(), config.getKubernetesMasterUrl(), config.getKubernetesApiToken(),
-                config.getKubernetesCaCertificate(), config.getKubernetesApiRetries(), config.isUseNodeNameAsExternalAddress());
+                config.getKubernetesCaCertificate(), config.getKubernetesApiRetries(), config.isUseNodeNameAsExternalAddress())
+                .withCaCertificateFile(config.getKubernetesCaCertificateFile())
+                .withEndpointSlices(config.isKubernetesApiEndpointSlices())
+                .withPageSize(config.getKubernetesApiPageSize())
+                .withReadConsistency(config.getKubernetesApiReadConsistency())
+                .withPodFieldSelector(config.getKubernetesApiPodFieldSelector())
+                .withProtobuf(config.isKubernetesApiProtobuf())
+                .withGzip(config.isKubernetesApiGzip())
+                .withParallelism(config.getKubernetesApiParallelism())
+                .withRoundTimeoutSeconds(config.getKubernetesApiRoundTimeoutSeconds())
+                .withPublicAddressCacheTtlSeconds(config.getKubernetesApiPublicAddressCacheTtlSeconds())
+                .withNodeIndexTtlSeconds(config.getKubernetesApiNodeIndexTtlSeconds())
+                .withRateLimiter(ApiRateLimiter.shared(config.getKubernetesMasterUrl(), config.getKubernetesApiRateLimit(),
+                        config.getKubernetesApiRateLimitBurst(), config.getKubernetesApiMaxConcurrentRequests()))
+                .withRequestHedger(RequestHedger.create(config.getKubernetesApiHedgePercentile(),
+                        config.getKubernetesApiHedgeBudgetPercent()))
+                .withCircuitBreaker(ApiCircuitBreaker.create(config.getKubernetesApiCircuitBreakerThreshold(),
+                        config.getKubernetesApiCircuitBreakerOpenSeconds()));
     }
 
     public void start() {
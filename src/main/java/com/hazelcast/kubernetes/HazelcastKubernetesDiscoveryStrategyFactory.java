@@ -52,6 +52,28 @@ public class HazelcastKubernetesDiscoveryStrategyFactory
                 KubernetesProperties.RESOLVE_NOT_READY_ADDRESSES,
                 KubernetesProperties.USE_NODE_NAME_AS_EXTERNAL_ADDRESS,
                 KubernetesProperties.KUBERNETES_API_RETIRES,
+                KubernetesProperties.KUBERNETES_API_WATCH,
+                KubernetesProperties.KUBERNETES_API_ENDPOINT_SLICES,
+                KubernetesProperties.KUBERNETES_API_PAGE_SIZE,
+                KubernetesProperties.KUBERNETES_API_READ_CONSISTENCY,
+                KubernetesProperties.KUBERNETES_API_POD_FIELD_SELECTOR,
+                KubernetesProperties.KUBERNETES_API_PROTOBUF,
+                KubernetesProperties.KUBERNETES_API_GZIP,
+                KubernetesProperties.KUBERNETES_API_PARALLELISM,
+                KubernetesProperties.KUBERNETES_API_ROUND_TIMEOUT_SECONDS,
+                KubernetesProperties.KUBERNETES_API_PUBLIC_ADDRESS_CACHE_TTL_SECONDS,
+                KubernetesProperties.KUBERNETES_API_REFRESH_INTERVAL_SECONDS,
+                KubernetesProperties.KUBERNETES_API_MAX_STALENESS_SECONDS,
+                KubernetesProperties.KUBERNETES_API_SNAPSHOT_FILE,
+                KubernetesProperties.KUBERNETES_API_RATE_LIMIT,
+                KubernetesProperties.KUBERNETES_API_RATE_LIMIT_BURST,
+                KubernetesProperties.KUBERNETES_API_MAX_CONCURRENT_REQUESTS,
+                KubernetesProperties.KUBERNETES_API_HEDGE_PERCENTILE,
+                KubernetesProperties.KUBERNETES_API_HEDGE_BUDGET_PERCENT,
+                KubernetesProperties.KUBERNETES_API_CIRCUIT_BREAKER_THRESHOLD,
+                KubernetesProperties.KUBERNETES_API_CIRCUIT_BREAKER_OPEN_SECONDS,
+                KubernetesProperties.KUBERNETES_API_FALLBACK_SERVICE_DNS,
+                KubernetesProperties.KUBERNETES_API_NODE_INDEX_TTL_SECONDS,
                 KubernetesProperties.KUBERNETES_MASTER_URL,
                 KubernetesProperties.KUBERNETES_API_TOKEN,
                 KubernetesProperties.KUBERNETES_CA_CERTIFICATE,
@@ -26,6 +26,9 @@ import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 class KubernetesApiEndpointResolver
         extends HazelcastKubernetesDiscoveryStrategy.EndpointResolver {
@@ -39,6 +42,17 @@ class KubernetesApiEndpointResolver
     private final int port;
     private final KubernetesClient client;
 
+    private boolean watch;
+    private EndpointWatcher watcher;
+    private int refreshIntervalSeconds;
+    private int maxStalenessSeconds;
+    private EndpointRefresher refresher;
+    private EndpointSnapshotFile snapshotFile;
+    private HazelcastKubernetesDiscoveryStrategy.EndpointResolver fallbackResolver;
+    private volatile List<Endpoint> seedEndpoints;
+    private volatile List<Endpoint> lastEndpoints;
+    private FutureTask<List<Endpoint>> seedDiscovery;
+
     KubernetesApiEndpointResolver(ILogger logger, String serviceName, int port,
                                   String serviceLabel, String serviceLabelValue, String podLabel, String podLabelValue,
                                   Boolean resolveNotReadyAddresses, KubernetesClient client) {
@@ -55,19 +69,226 @@ class KubernetesApiEndpointResolver
         this.client = client;
     }
 
+    /**
+     * Enables keeping the discovered endpoints in memory, up to date with a Kubernetes watch, instead of polling the
+     * Kubernetes API on every {@link #resolve()}.
+     */
+    KubernetesApiEndpointResolver withWatch(boolean watch) {
+        this.watch = watch;
+        return this;
+    }
+
+    /**
+     * Enables refreshing the discovered endpoints in the background every {@code refreshIntervalSeconds}, so that
+     * {@link #resolve()} returns the last-known-good endpoints without calling the Kubernetes API, as long as they are
+     * not older than {@code maxStalenessSeconds}.
+     */
+    KubernetesApiEndpointResolver withRefresh(int refreshIntervalSeconds, int maxStalenessSeconds) {
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+        this.maxStalenessSeconds = maxStalenessSeconds;
+        return this;
+    }
+
+    /**
+     * Enables storing the discovered endpoints in {@code snapshotFile}, from which they are loaded on start to be returned
+     * by {@link #resolve()} until the first discovery with the Kubernetes API, run in the background, completes.
+     */
+    KubernetesApiEndpointResolver withSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile != null ? new EndpointSnapshotFile(snapshotFile) : null;
+        return this;
+    }
+
+    /**
+     * Sets the resolver, e.g. a DNS lookup of a headless service, used when discovery with the Kubernetes API fails (or
+     * its circuit breaker is open) and there are no previously discovered endpoints.
+     */
+    KubernetesApiEndpointResolver withFallback(HazelcastKubernetesDiscoveryStrategy.EndpointResolver fallbackResolver) {
+        this.fallbackResolver = fallbackResolver;
+        return this;
+    }
+
+    @Override
+    void start() {
+        if (watch) {
+            watcher = new EndpointWatcher(client, discoveryResource());
+            watcher.start();
+        }
+        List<Endpoint> storedEndpoints = snapshotFile != null ? snapshotFile.load() : null;
+        if (refreshIntervalSeconds > 0) {
+            refresher = new EndpointRefresher(new Callable<List<Endpoint>>() {
+                @Override
+                public List<Endpoint> call() {
+                    return discoverAndStoreEndpoints();
+                }
+            }, refreshIntervalSeconds, maxStalenessSeconds);
+            if (storedEndpoints != null) {
+                refresher.update(storedEndpoints, snapshotFile.ageMillis());
+            }
+            refresher.start();
+        } else if (storedEndpoints != null && !isStale(snapshotFile.ageMillis())) {
+            logger.info(String.format("Loaded %d endpoints from the snapshot, discovering the current ones in the background",
+                    storedEndpoints.size()));
+            seedEndpoints = storedEndpoints;
+            lastEndpoints = storedEndpoints;
+        }
+    }
+
+    private boolean isStale(long ageMillis) {
+        return maxStalenessSeconds > 0 && ageMillis > TimeUnit.SECONDS.toMillis(maxStalenessSeconds);
+    }
+
+    @Override
+    void destroy() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+        if (refresher != null) {
+            refresher.stop();
+        }
+        client.shutdown();
+    }
+
     @Override
     List<DiscoveryNode> resolve() {
+        if (watcher != null) {
+            List<Endpoint> watchedEndpoints = watcher.endpoints();
+            if (watchedEndpoints != null) {
+                logger.fine("Using watched endpoints to discover nodes.");
+                storeEndpoints(watchedEndpoints);
+                return getSimpleDiscoveryNodes(watchedEndpoints);
+            }
+        }
+        if (refresher != null) {
+            return refreshedNodes();
+        }
+        if (seedEndpoints != null) {
+            List<Endpoint> endpoints = seedOrDiscoveredEndpoints();
+            if (endpoints != null) {
+                return getSimpleDiscoveryNodes(endpoints);
+            }
+        }
+        try {
+            return getSimpleDiscoveryNodes(discoverAndStoreEndpoints());
+        } catch (RuntimeException e) {
+            return fallbackNodes(e, lastEndpoints);
+        }
+    }
+
+    private List<DiscoveryNode> refreshedNodes() {
+        List<Endpoint> refreshedEndpoints = refresher.endpoints();
+        if (refreshedEndpoints != null) {
+            logger.fine("Using refreshed endpoints to discover nodes.");
+            return getSimpleDiscoveryNodes(refreshedEndpoints);
+        }
+        try {
+            List<Endpoint> endpoints = discoverAndStoreEndpoints();
+            refresher.update(endpoints);
+            return getSimpleDiscoveryNodes(endpoints);
+        } catch (RuntimeException e) {
+            // the last refreshed endpoints are too stale to be used
+            return fallbackNodes(e, null);
+        }
+    }
+
+    /**
+     * Returns the nodes to use when discovery with the Kubernetes API failed with {@code e}, e.g. because the API did not
+     * respond within the discovery round deadline or its circuit breaker is open: the last discovered endpoints if
+     * there are any, otherwise the nodes found by the fallback resolver.
+     *
+     * @throws RuntimeException {@code e} if there is no fallback
+     */
+    private List<DiscoveryNode> fallbackNodes(RuntimeException e, List<Endpoint> lastKnownEndpoints) {
+        if (lastKnownEndpoints != null) {
+            logger.warning(String.format("Discovery with Kubernetes API failed, using the last discovered endpoints: %s",
+                    e.getMessage()));
+            return getSimpleDiscoveryNodes(lastKnownEndpoints);
+        }
+        if (fallbackResolver != null) {
+            logger.warning(String.format("Discovery with Kubernetes API failed, using the fallback resolver: %s",
+                    e.getMessage()));
+            return fallbackResolver.resolve();
+        }
+        throw e;
+    }
+
+    /**
+     * Returns the endpoints loaded from the snapshot while the first discovery is in progress and then its result, once.
+     *
+     * @return the endpoints or {@code null} if the first discovery failed or its result was already returned
+     */
+    private synchronized List<Endpoint> seedOrDiscoveredEndpoints() {
+        if (seedEndpoints == null) {
+            return null;
+        }
+        if (seedDiscovery == null) {
+            seedDiscovery = new FutureTask<List<Endpoint>>(new Callable<List<Endpoint>>() {
+                @Override
+                public List<Endpoint> call() {
+                    return discoverAndStoreEndpoints();
+                }
+            });
+            Thread thread = new Thread(seedDiscovery, "hazelcast-kubernetes-discovery");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        if (!seedDiscovery.isDone()) {
+            logger.fine("Using endpoints from the snapshot to discover nodes.");
+            return seedEndpoints;
+        }
+        seedEndpoints = null;
+        try {
+            return seedDiscovery.get();
+        } catch (Exception e) {
+            logger.finest(e);
+            return null;
+        }
+    }
+
+    private List<Endpoint> discoverAndStoreEndpoints() {
+        List<Endpoint> endpoints = discoverEndpoints();
+        storeEndpoints(endpoints);
+        return endpoints;
+    }
+
+    /**
+     * Remembers {@code endpoints} as the last discovered ones and stores them in the snapshot file, which is written only
+     * when they changed.
+     */
+    private void storeEndpoints(List<Endpoint> endpoints) {
+        // An empty result means no access to the Kubernetes API, which should not override the last known members.
+        if (!endpoints.isEmpty()) {
+            lastEndpoints = endpoints;
+            if (snapshotFile != null) {
+                snapshotFile.store(endpoints);
+            }
+        }
+    }
+
+    private List<Endpoint> discoverEndpoints() {
         if (serviceName != null && !serviceName.isEmpty()) {
             logger.fine("Using service name to discover nodes.");
-            return getSimpleDiscoveryNodes(client.endpointsByName(serviceName));
+            return client.endpointsByName(serviceName);
         } else if (serviceLabel != null && !serviceLabel.isEmpty()) {
             logger.fine("Using service label to discover nodes.");
-            return getSimpleDiscoveryNodes(client.endpointsByServiceLabel(serviceLabel, serviceLabelValue));
+            return client.endpointsByServiceLabel(serviceLabel, serviceLabelValue);
         } else if (podLabel != null && !podLabel.isEmpty()) {
             logger.fine("Using pod label to discover nodes.");
-            return getSimpleDiscoveryNodes(client.endpointsByPodLabel(podLabel, podLabelValue));
+            return client.endpointsByPodLabel(podLabel, podLabelValue);
+        }
+        return client.endpoints();
+    }
+
+    private DiscoveryResource discoveryResource() {
+        if (serviceName != null && !serviceName.isEmpty()) {
+            return client.isEndpointSlices() ? DiscoveryResource.endpointSlicesByServiceName(serviceName)
+                    : DiscoveryResource.endpointsByName(serviceName);
+        } else if (serviceLabel != null && !serviceLabel.isEmpty()) {
+            return client.isEndpointSlices() ? DiscoveryResource.endpointSlicesByLabel(serviceLabel, serviceLabelValue)
+                    : DiscoveryResource.endpointsByLabel(serviceLabel, serviceLabelValue);
+        } else if (podLabel != null && !podLabel.isEmpty()) {
+            return DiscoveryResource.podsByLabel(podLabel, podLabelValue);
         }
-        return getSimpleDiscoveryNodes(client.endpoints());
+        return DiscoveryResource.pods();
     }
 
     private List<DiscoveryNode> getSimpleDiscoveryNodes(List<Endpoint> endpoints) {
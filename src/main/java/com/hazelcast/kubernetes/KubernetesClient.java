@@ -16,14 +16,18 @@
 
 package com.hazelcast.kubernetes;
 
-import com.hazelcast.internal.json.Json;
 import com.hazelcast.internal.json.JsonArray;
 import com.hazelcast.internal.json.JsonObject;
 import com.hazelcast.internal.json.JsonValue;
+import com.hazelcast.kubernetes.KubernetesConfig.ReadConsistency;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,6 +35,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -44,18 +53,115 @@ import static java.util.Collections.emptyList;
 class KubernetesClient {
     private static final ILogger LOGGER = Logger.getLogger(KubernetesClient.class);
 
+    private static final SingleFlight<List<Object>, JsonObject> IN_FLIGHT_GETS = new SingleFlight<List<Object>, JsonObject>();
+
+    /**
+     * Failures without an HTTP status which are not retried; the failed calls are classified by their HTTP status.
+     */
     private static final List<String> NON_RETRYABLE_KEYWORDS = asList(
-            "\"reason\":\"Forbidden\"",
-            "\"reason\":\"Unauthorized\"",
-            "Failure in generating SSLSocketFactory");
+            "Failure in generating SSLSocketFactory",
+            ApiCircuitBreaker.OPEN_MESSAGE);
+
+    /**
+     * Extra time given to the client read timeout on top of the server-side watch timeout, so that a healthy watch is
+     * always closed by the server first.
+     */
+    private static final int WATCH_READ_TIMEOUT_MARGIN_SECONDS = 30;
+
+    private static final List<JsonValue> NO_ITEMS = emptyList();
+
+    /**
+     * Parsers reading only the fields used by discovery, so that large unused parts of the responses (e.g.
+     * {@code managedFields}, {@code env} or {@code volumes} of PODs) are skipped while streaming the response.
+     */
+    private static final SelectiveJsonParser PODS_LIST_PARSER = new SelectiveJsonParser("metadata.resourceVersion",
+            "metadata.continue",
+            "items.metadata.name", "items.metadata.resourceVersion", "items.status.podIP",
+            "items.status.containerStatuses.ready", "items.spec.containers.ports.containerPort");
+    private static final SelectiveJsonParser ENDPOINTS_LIST_PARSER = new SelectiveJsonParser("metadata.resourceVersion",
+            "items.metadata.name", "items.metadata.resourceVersion", "items.subsets");
+    private static final SelectiveJsonParser ENDPOINT_SLICES_LIST_PARSER = new SelectiveJsonParser(
+            "metadata.resourceVersion", "items.metadata.name", "items.metadata.resourceVersion", "items.metadata.labels",
+            "items.endpoints", "items.ports");
+    private static final SelectiveJsonParser ENDPOINTS_PARSER = new SelectiveJsonParser("metadata.name",
+            "metadata.resourceVersion", "subsets");
+    private static final SelectiveJsonParser POD_PARSER = new SelectiveJsonParser("spec.nodeName");
+    private static final SelectiveJsonParser SERVICE_PARSER = new SelectiveJsonParser("status.loadBalancer.ingress",
+            "spec.ports");
+    private static final SelectiveJsonParser SERVICES_LIST_PARSER = new SelectiveJsonParser("metadata.resourceVersion",
+            "items.metadata.name", "items.status.loadBalancer.ingress", "items.spec.ports");
+    private static final SelectiveJsonParser NODE_PARSER = new SelectiveJsonParser("status.addresses");
+    private static final SelectiveJsonParser NODES_LIST_PARSER = new SelectiveJsonParser("metadata.resourceVersion",
+            "items.metadata.name", "items.status.addresses");
+    private static final SelectiveJsonParser NODE_METADATA_PARSER = new SelectiveJsonParser("metadata.labels");
+
+    /**
+     * Asks for the object metadata only (without e.g. the large {@code status.images} list of a Node), accepting the full
+     * object from the API servers which do not support it.
+     *
+     * @see <a href="https://kubernetes.io/docs/reference/using-api/api-concepts/#receiving-resources-as-tables">
+     * Alternate representations of resources</a>
+     */
+    private static final String METADATA_ONLY = "application/json;as=PartialObjectMetadata;g=meta.k8s.io;v=v1,application/json";
+
+    /**
+     * Protobuf decoders of the responses which the JSON parsers are used for, if the Kubernetes API encodes them in protobuf.
+     */
+    private static final Map<SelectiveJsonParser, KubernetesProtobuf> PROTOBUF_DECODERS
+            = new HashMap<SelectiveJsonParser, KubernetesProtobuf>();
+
+    static {
+        PROTOBUF_DECODERS.put(PODS_LIST_PARSER, KubernetesProtobuf.POD_LIST);
+        PROTOBUF_DECODERS.put(ENDPOINTS_LIST_PARSER, KubernetesProtobuf.ENDPOINTS_LIST);
+        PROTOBUF_DECODERS.put(ENDPOINTS_PARSER, KubernetesProtobuf.ENDPOINTS_OBJECT);
+        PROTOBUF_DECODERS.put(SERVICES_LIST_PARSER, KubernetesProtobuf.SERVICE_LIST);
+        PROTOBUF_DECODERS.put(SERVICE_PARSER, KubernetesProtobuf.SERVICE_OBJECT);
+        PROTOBUF_DECODERS.put(NODES_LIST_PARSER, KubernetesProtobuf.NODE_LIST);
+        PROTOBUF_DECODERS.put(NODE_PARSER, KubernetesProtobuf.NODE_OBJECT);
+    }
 
     private final String namespace;
     private final String kubernetesMaster;
     private final String apiToken;
-    private final String caCertificate;
+    private volatile String caCertificate;
     private final int retries;
     private boolean useNodeNameAsExternalAddress;
+    private boolean useEndpointSlices;
+    private int pageSize;
+    private ReadConsistency readConsistency = ReadConsistency.STRONG;
+    private String podFieldSelector;
+    private boolean useProtobuf;
+    private boolean useGzip = true;
+    private int roundTimeoutSeconds;
+    private PublicAddressCache publicAddressCache = new PublicAddressCache(0);
+    private ApiRateLimiter rateLimiter;
+    private RequestHedger requestHedger;
+    private ApiCircuitBreaker circuitBreaker;
+    /**
+     * Runs the Kubernetes API calls which are made concurrently within a discovery round, at most as many at a time as
+     * the configured parallelism.
+     */
+    private ExecutorService apiCallExecutor = newApiCallExecutor(KubernetesConfig.DEFAULT_API_PARALLELISM);
+    /**
+     * Resource versions last seen per URL, for the {@link ReadConsistency#NOT_OLDER_THAN} reads.
+     */
+    private final Map<String, String> resourceVersions = new ConcurrentHashMap<String, String>();
+
+    private String caCertificateFile;
+    private long caCertificateLastModified;
+
+    /**
+     * External IPs of all nodes (or {@code null} for nodes without one), shared by all discovery rounds and listed again
+     * whenever an unknown node is looked up or the index is older than {@link #nodeIndexTtlNanos}.
+     */
+    private volatile Map<String, String> nodeExternalIps = Collections.emptyMap();
+    private volatile long nodeExternalIpsListedAtNanos;
+    private long nodeIndexTtlNanos = TimeUnit.SECONDS.toNanos(KubernetesConfig.DEFAULT_NODE_INDEX_TTL);
 
+    private volatile DiscoveryRound lastRound;
+
+    private volatile boolean isServicesListForbidden;
+    private volatile boolean isNodesListForbidden;
     private boolean isNoPublicIpAlreadyLogged;
     private boolean isKnownExceptionAlreadyLogged;
 
@@ -69,6 +175,190 @@ class KubernetesClient {
         this.useNodeNameAsExternalAddress = useNodeNameAsExternalAddress;
     }
 
+    /**
+     * Makes the client re-read the CA certificate from {@code caCertificateFile} whenever the file changes, e.g. when the
+     * mounted service account certificate is rotated.
+     *
+     * @param caCertificateFile file the CA certificate was read from or {@code null} if it was provided directly
+     * @return this client
+     */
+    synchronized KubernetesClient withCaCertificateFile(String caCertificateFile) {
+        this.caCertificateFile = caCertificateFile;
+        if (caCertificateFile != null) {
+            this.caCertificateLastModified = new File(caCertificateFile).lastModified();
+        }
+        return this;
+    }
+
+    /**
+     * Makes the client discover service endpoints with the {@code discovery.k8s.io/v1} EndpointSlice API instead of the
+     * legacy {@code v1} Endpoints API.
+     *
+     * @param useEndpointSlices {@code true} to use EndpointSlices
+     * @return this client
+     */
+    KubernetesClient withEndpointSlices(boolean useEndpointSlices) {
+        this.useEndpointSlices = useEndpointSlices;
+        return this;
+    }
+
+    boolean isEndpointSlices() {
+        return useEndpointSlices;
+    }
+
+    /**
+     * Makes the client read from the Kubernetes API with the given consistency, possibly from the API server cache.
+     *
+     * @param readConsistency read consistency
+     * @return this client
+     */
+    KubernetesClient withReadConsistency(ReadConsistency readConsistency) {
+        this.readConsistency = readConsistency;
+        return this;
+    }
+
+    /**
+     * Makes the client discover only the PODs matching {@code podFieldSelector}, filtered by the Kubernetes API.
+     *
+     * @param podFieldSelector field selector (e.g. {@code status.phase=Running}), {@code null} to discover all PODs
+     * @return this client
+     */
+    KubernetesClient withPodFieldSelector(String podFieldSelector) {
+        this.podFieldSelector = podFieldSelector;
+        return this;
+    }
+
+    /**
+     * Makes the client request PODs, Endpoints, Services and Nodes in the protobuf encoding, falling back to JSON if the
+     * Kubernetes API responds with JSON.
+     *
+     * @param useProtobuf whether to request protobuf
+     * @return this client
+     */
+    KubernetesClient withProtobuf(boolean useProtobuf) {
+        this.useProtobuf = useProtobuf;
+        return this;
+    }
+
+    /**
+     * Makes the client ask the Kubernetes API to compress the responses with gzip, which is enabled by default.
+     *
+     * @param useGzip whether to ask for compressed responses
+     * @return this client
+     */
+    KubernetesClient withGzip(boolean useGzip) {
+        this.useGzip = useGzip;
+        return this;
+    }
+
+    /**
+     * Makes the client run at most {@code parallelism} Kubernetes API calls of a discovery round at the same time.
+     *
+     * @param parallelism maximum number of concurrent calls, {@code 1} to make the calls one after another
+     * @return this client
+     */
+    KubernetesClient withParallelism(int parallelism) {
+        ExecutorService previousExecutor = apiCallExecutor;
+        this.apiCallExecutor = newApiCallExecutor(parallelism);
+        previousExecutor.shutdown();
+        return this;
+    }
+
+    /**
+     * Makes the client stop waiting for the concurrent API calls of a discovery round after {@code roundTimeoutSeconds}.
+     *
+     * @param roundTimeoutSeconds time limit of a discovery round, {@code 0} for no limit
+     * @return this client
+     */
+    KubernetesClient withRoundTimeoutSeconds(int roundTimeoutSeconds) {
+        this.roundTimeoutSeconds = roundTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * Makes the client keep the resolved public addresses for {@code ttlSeconds}, so that the Services and Nodes are
+     * looked up only for the new PODs.
+     *
+     * @param ttlSeconds how long the public addresses are kept, {@code 0} to look them up in every discovery round
+     * @return this client
+     */
+    KubernetesClient withPublicAddressCacheTtlSeconds(int ttlSeconds) {
+        this.publicAddressCache = new PublicAddressCache(ttlSeconds);
+        return this;
+    }
+
+    /**
+     * Makes the client list the nodes again once its node External IP index is older than {@code ttlSeconds}, so that
+     * changed External IPs and removed nodes are picked up.
+     *
+     * @param ttlSeconds maximum age of the node index, {@code 0} to list the nodes in every discovery round which needs them
+     * @return this client
+     */
+    KubernetesClient withNodeIndexTtlSeconds(int ttlSeconds) {
+        this.nodeIndexTtlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        return this;
+    }
+
+    PublicAddressCache publicAddressCache() {
+        return publicAddressCache;
+    }
+
+    /**
+     * Makes all the Kubernetes API calls wait in {@code rateLimiter}, {@code null} for no limits.
+     */
+    KubernetesClient withRateLimiter(ApiRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    /**
+     * Makes the client send a second copy of a GET call which has not completed within a percentile of the recent call
+     * latencies, using the result which comes first; {@code null} for no hedging.
+     */
+    KubernetesClient withRequestHedger(RequestHedger requestHedger) {
+        this.requestHedger = requestHedger;
+        return this;
+    }
+
+    /**
+     * Makes the GET calls fail immediately while {@code circuitBreaker} is open, {@code null} for no circuit breaker.
+     */
+    KubernetesClient withCircuitBreaker(ApiCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    private static ExecutorService newApiCallExecutor(int parallelism) {
+        return DaemonThreadPools.newFixedThreadPool("hazelcast-kubernetes-api-call", parallelism);
+    }
+
+    /**
+     * Stops the threads making the concurrent and the hedged Kubernetes API calls, after which the client cannot be used
+     * anymore.
+     */
+    void shutdown() {
+        apiCallExecutor.shutdown();
+        if (requestHedger != null) {
+            requestHedger.shutdown();
+        }
+    }
+
+    private DiscoveryRound newRound() {
+        return new DiscoveryRound(TimeUnit.SECONDS.toMillis(roundTimeoutSeconds));
+    }
+
+    /**
+     * Makes the client list PODs in pages of at most {@code pageSize} PODs, each page parsed before the next one is
+     * fetched.
+     *
+     * @param pageSize maximum number of PODs per Kubernetes API call, {@code 0} to list all PODs at once
+     * @return this client
+     */
+    KubernetesClient withPageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
     /**
      * Retrieves POD addresses in the specified {@code namespace}.
      *
@@ -76,11 +366,14 @@ class KubernetesClient {
      * @see <a href="https://kubernetes.io/docs/reference/generated/kubernetes-api/v1.11/#list-143">Kubernetes Endpoint API</a>
      */
     List<Endpoint> endpoints() {
+        DiscoveryRound round = newRound();
         try {
-            String urlString = String.format("%s/api/v1/namespaces/%s/pods", kubernetesMaster, namespace);
-            return enrichWithPublicAddresses(parsePodsList(callGet(urlString)));
+            DiscoveryResource resource = DiscoveryResource.pods();
+            return enrichWithPublicAddresses(round, resource, listPods(round, resource), NO_ITEMS);
         } catch (RestClientException e) {
             return handleKnownException(e);
+        } finally {
+            finish(round);
         }
     }
 
@@ -94,12 +387,17 @@ class KubernetesClient {
      * @see <a href="https://kubernetes.io/docs/reference/generated/kubernetes-api/v1.11/#list-143">Kubernetes Endpoint API</a>
      */
     List<Endpoint> endpointsByServiceLabel(String serviceLabel, String serviceLabelValue) {
+        DiscoveryRound round = newRound();
         try {
-            String param = String.format("labelSelector=%s=%s", serviceLabel, serviceLabelValue);
-            String urlString = String.format("%s/api/v1/namespaces/%s/endpoints?%s", kubernetesMaster, namespace, param);
-            return enrichWithPublicAddresses(parseEndpointsList(callGet(urlString)));
+            DiscoveryResource resource = useEndpointSlices
+                    ? DiscoveryResource.endpointSlicesByLabel(serviceLabel, serviceLabelValue)
+                    : DiscoveryResource.endpointsByLabel(serviceLabel, serviceLabelValue);
+            JsonArray items = listEndpoints(round, resource);
+            return enrichWithPublicAddresses(round, resource, parseEndpointsList(items), items);
         } catch (RestClientException e) {
             return handleKnownException(e);
+        } finally {
+            finish(round);
         }
     }
 
@@ -111,11 +409,24 @@ class KubernetesClient {
      * @see <a href="https://kubernetes.io/docs/reference/generated/kubernetes-api/v1.11/#list-143">Kubernetes Endpoint API</a>
      */
     List<Endpoint> endpointsByName(String endpointName) {
+        DiscoveryRound round = newRound();
         try {
-            String urlString = String.format("%s/api/v1/namespaces/%s/endpoints/%s", kubernetesMaster, namespace, endpointName);
-            return enrichWithPublicAddresses(parseEndpoints(callGet(urlString)));
+            DiscoveryResource resource;
+            JsonArray items;
+            if (useEndpointSlices) {
+                resource = DiscoveryResource.endpointSlicesByServiceName(endpointName);
+                items = listEndpoints(round, resource);
+            } else {
+                resource = DiscoveryResource.endpointsByName(endpointName);
+                String urlString = String.format("%s/api/v1/namespaces/%s/endpoints/%s", kubernetesMaster, namespace,
+                        endpointName);
+                items = new JsonArray().add(consistentGet(round, urlString, ENDPOINTS_PARSER, false));
+            }
+            return enrichWithPublicAddresses(round, resource, parseEndpointsList(items), items);
         } catch (RestClientException e) {
             return handleKnownException(e);
+        } finally {
+            finish(round);
         }
     }
 
@@ -129,12 +440,14 @@ class KubernetesClient {
      * @see <a href="https://kubernetes.io/docs/reference/generated/kubernetes-api/v1.11/#list-143">Kubernetes Endpoint API</a>
      */
     List<Endpoint> endpointsByPodLabel(String podLabel, String podLabelValue) {
+        DiscoveryRound round = newRound();
         try {
-            String param = String.format("labelSelector=%s=%s", podLabel, podLabelValue);
-            String urlString = String.format("%s/api/v1/namespaces/%s/pods?%s", kubernetesMaster, namespace, param);
-            return enrichWithPublicAddresses(parsePodsList(callGet(urlString)));
+            DiscoveryResource resource = DiscoveryResource.podsByLabel(podLabel, podLabelValue);
+            return enrichWithPublicAddresses(round, resource, listPods(round, resource), NO_ITEMS);
         } catch (RestClientException e) {
             return handleKnownException(e);
+        } finally {
+            finish(round);
         }
     }
 
@@ -149,8 +462,13 @@ class KubernetesClient {
      * @see <a href="https://kubernetes.io/docs/reference/generated/kubernetes-api/v1.11">Kubernetes Endpoint API</a>
      */
     String zone(String podName) {
-        String nodeUrlString = String.format("%s/api/v1/nodes/%s", kubernetesMaster, nodeName(podName));
-        return extractZone(callGet(nodeUrlString));
+        DiscoveryRound round = newRound();
+        try {
+            String nodeUrlString = String.format("%s/api/v1/nodes/%s", kubernetesMaster, nodeName(round, podName));
+            return extractZone(callGetMetadata(round, nodeUrlString, NODE_METADATA_PARSER));
+        } finally {
+            finish(round);
+        }
     }
 
     /**
@@ -161,14 +479,236 @@ class KubernetesClient {
      * @see <a href="https://kubernetes.io/docs/reference/generated/kubernetes-api/v1.11">Kubernetes Endpoint API</a>
      */
     String nodeName(String podName) {
+        DiscoveryRound round = newRound();
+        try {
+            return nodeName(round, podName);
+        } finally {
+            finish(round);
+        }
+    }
+
+    private String nodeName(DiscoveryRound round, String podName) {
         String podUrlString = String.format("%s/api/v1/namespaces/%s/pods/%s", kubernetesMaster, namespace, podName);
-        return extractNodeName(callGet(podUrlString));
+        return extractNodeName(callGet(round, podUrlString, POD_PARSER));
+    }
+
+    /**
+     * Lists the resources behind {@code resource} and returns the raw list, including its {@code metadata.resourceVersion}.
+     *
+     * @param resource discovered resource collection
+     * @return raw list JSON
+     */
+    JsonObject list(DiscoveryResource resource) {
+        DiscoveryRound round = newRound();
+        try {
+            return consistentGet(round, resourceUrl(resource), listParser(resource), true);
+        } finally {
+            finish(round);
+        }
+    }
+
+    /**
+     * Opens a watch on the resources behind {@code resource}, streaming all changes made after {@code resourceVersion}
+     * as newline-delimited JSON events.
+     * <p>
+     * The server closes the stream after {@code timeoutSeconds}; the watch can then be resumed with the last seen
+     * {@code resourceVersion}.
+     *
+     * @param resource        discovered resource collection
+     * @param resourceVersion version to start watching from, usually taken from {@link #list(DiscoveryResource)}
+     * @param timeoutSeconds  server-side timeout of the watch
+     * @return stream of watch events, must be closed by the caller
+     * @see <a href="https://kubernetes.io/docs/reference/using-api/api-concepts/#efficient-detection-of-changes">Kubernetes
+     * Watch API</a>
+     */
+    RestClient.LineStream watch(DiscoveryResource resource, String resourceVersion, int timeoutSeconds) {
+        String param = String.format("watch=true&allowWatchBookmarks=true&resourceVersion=%s&timeoutSeconds=%s",
+                resourceVersion, timeoutSeconds);
+        return restClient(resourceUrl(resource, param))
+                .withReadTimeoutSeconds(timeoutSeconds + WATCH_READ_TIMEOUT_MARGIN_SECONDS)
+                .getLines();
+    }
+
+    /**
+     * Converts raw items of {@code resource}, as returned by {@link #list(DiscoveryResource)} or by watch events, into
+     * endpoints without public addresses, without calling the Kubernetes API.
+     *
+     * @param resource discovered resource collection
+     * @param items    raw items
+     * @return POD addresses
+     */
+    List<Endpoint> privateEndpoints(DiscoveryResource resource, Collection<JsonValue> items) {
+        if (resource.isPods()) {
+            return parsePods(items);
+        }
+        return parseEndpointsList(endpointsItems(resource, items));
+    }
+
+    /**
+     * Adds the public addresses to {@code endpoints}, as returned by {@link #privateEndpoints(DiscoveryResource, Collection)}
+     * for the same {@code items}.
+     *
+     * @param resource  discovered resource collection
+     * @param endpoints endpoints without public addresses
+     * @param items     raw items
+     * @return POD addresses
+     */
+    List<Endpoint> withPublicAddresses(DiscoveryResource resource, List<Endpoint> endpoints, Collection<JsonValue> items) {
+        DiscoveryRound round = newRound();
+        try {
+            Iterable<JsonValue> fetchedEndpoints = resource.isPods() ? NO_ITEMS : endpointsItems(resource, items);
+            return enrichWithPublicAddresses(round, resource, endpoints, fetchedEndpoints);
+        } finally {
+            finish(round);
+        }
+    }
+
+    private static JsonArray endpointsItems(DiscoveryResource resource, Collection<JsonValue> items) {
+        return resource.isEndpointSlices() ? EndpointSlices.toEndpoints(items) : jsonArrayOf(items);
+    }
+
+    /**
+     * Returns the context of the last finished discovery round.
+     *
+     * @return the last discovery round or {@code null} if no round has finished yet
+     */
+    DiscoveryRound lastRound() {
+        return lastRound;
+    }
+
+    private void finish(DiscoveryRound round) {
+        lastRound = round;
+        LOGGER.fine(String.format("Discovery with Kubernetes API finished: %s%s%s%s", round,
+                rateLimiter != null ? ", JVM-wide " + rateLimiter : "", requestHedger != null ? ", " + requestHedger : "",
+                circuitBreaker != null ? ", " + circuitBreaker : ""));
+    }
+
+    /**
+     * Lists the PODs behind {@code resource}, page by page if the page size is set.
+     *
+     * @see <a href="https://kubernetes.io/docs/reference/using-api/api-concepts/#retrieving-large-results-sets-in-chunks">
+     * Retrieving large results sets in chunks</a>
+     */
+    private List<Endpoint> listPods(DiscoveryRound round, DiscoveryResource resource) {
+        if (pageSize <= 0) {
+            return parsePodsList(consistentGet(round, resourceUrl(resource), PODS_LIST_PARSER, true));
+        }
+        try {
+            return listPodPages(round, resource);
+        } catch (RestClientException e) {
+            if (!isExpired(e)) {
+                throw e;
+            }
+            // The list snapshot expired between pages, so the pages already read may be outdated, start over once.
+            LOGGER.fine(String.format("Listing %s expired, listing again", resource));
+            return listPodPages(round, resource);
+        }
+    }
+
+    private List<Endpoint> listPodPages(DiscoveryRound round, DiscoveryResource resource) {
+        List<Endpoint> endpoints = new ArrayList<Endpoint>();
+        String continueToken = null;
+        do {
+            String urlString = resourceUrl(resource, pageParams(continueToken));
+            // The following pages belong to the snapshot of the first one, so they cannot specify the resource version.
+            JsonObject page = continueToken == null ? consistentGet(round, urlString, PODS_LIST_PARSER, true)
+                    : callGet(round, urlString, PODS_LIST_PARSER);
+            endpoints.addAll(parsePodsList(page));
+            JsonValue metadata = page.get("metadata");
+            continueToken = metadata != null ? toString(metadata.asObject().get("continue")) : null;
+        } while (continueToken != null && !continueToken.isEmpty());
+        return endpoints;
+    }
+
+    /**
+     * Reads {@code urlString} with the configured read consistency.
+     *
+     * @param list whether {@code urlString} is a LIST call, as only LIST calls accept {@code resourceVersionMatch}
+     * @see <a href="https://kubernetes.io/docs/reference/using-api/api-concepts/#resource-versions">Resource versions</a>
+     */
+    private JsonObject consistentGet(DiscoveryRound round, String urlString, SelectiveJsonParser parser, boolean list) {
+        if (readConsistency == ReadConsistency.STRONG) {
+            return callGet(round, urlString, parser);
+        }
+        String resourceVersion = readConsistency == ReadConsistency.NOT_OLDER_THAN ? resourceVersions.get(urlString) : null;
+        String params;
+        if (resourceVersion == null) {
+            // Any version, served from the API server cache.
+            params = "resourceVersion=0";
+        } else if (list) {
+            params = String.format("resourceVersion=%s&resourceVersionMatch=NotOlderThan", resourceVersion);
+        } else {
+            // A non-zero resource version of a GET call already means "not older than".
+            params = String.format("resourceVersion=%s", resourceVersion);
+        }
+        JsonObject result = callGet(round, String.format("%s%s%s", urlString, urlString.contains("?") ? "&" : "?", params),
+                parser);
+        JsonValue metadata = result.get("metadata");
+        String seenResourceVersion = metadata != null ? toString(metadata.asObject().get("resourceVersion")) : null;
+        if (readConsistency == ReadConsistency.NOT_OLDER_THAN && seenResourceVersion != null) {
+            resourceVersions.put(urlString, seenResourceVersion);
+        }
+        return result;
+    }
+
+    private String pageParams(String continueToken) {
+        if (continueToken == null) {
+            return String.format("limit=%d", pageSize);
+        }
+        return String.format("limit=%d&continue=%s", pageSize, urlEncode(continueToken));
+    }
+
+    private static String urlEncode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new KubernetesClientException(String.format("Failure in encoding: %s", value), e);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static boolean isExpired(RestClientException e) {
+        return e.getHttpErrorCode() == 410;
+    }
+
+    private static SelectiveJsonParser listParser(DiscoveryResource resource) {
+        if (resource.isPods()) {
+            return PODS_LIST_PARSER;
+        }
+        return resource.isEndpointSlices() ? ENDPOINT_SLICES_LIST_PARSER : ENDPOINTS_LIST_PARSER;
+    }
+
+    /**
+     * Lists the endpoints behind {@code resource}, converting EndpointSlices into the Endpoints format.
+     */
+    private JsonArray listEndpoints(DiscoveryRound round, DiscoveryResource resource, String... params) {
+        JsonArray items = toJsonArray(consistentGet(round, resourceUrl(resource, params), listParser(resource), true)
+                .get("items"));
+        return resource.isEndpointSlices() ? EndpointSlices.toEndpoints(items) : items;
+    }
+
+    private String resourceUrl(DiscoveryResource resource, String... params) {
+        String urlString = String.format("%s/%s/namespaces/%s/%s", kubernetesMaster, resource.getApiPath(), namespace,
+                resource.getName());
+        String query = resource.getSelector();
+        if (resource.isPods() && podFieldSelector != null) {
+            String fieldSelector = String.format("fieldSelector=%s", urlEncode(podFieldSelector));
+            query = query == null ? fieldSelector : String.format("%s&%s", query, fieldSelector);
+        }
+        for (String param : params) {
+            query = query == null ? param : String.format("%s&%s", query, param);
+        }
+        return query == null ? urlString : String.format("%s?%s", urlString, query);
     }
 
     private static List<Endpoint> parsePodsList(JsonObject podsListJson) {
+        return parsePods(toJsonArray(podsListJson.get("items")));
+    }
+
+    private static List<Endpoint> parsePods(Iterable<JsonValue> items) {
         List<Endpoint> addresses = new ArrayList<Endpoint>();
 
-        for (JsonValue item : toJsonArray(podsListJson.get("items"))) {
+        for (JsonValue item : items) {
             JsonObject status = item.asObject().get("status").asObject();
             String ip = toString(status.get("podIP"));
             if (ip != null) {
@@ -207,9 +747,9 @@ class KubernetesClient {
         return true;
     }
 
-    private static List<Endpoint> parseEndpointsList(JsonObject endpointsListJson) {
+    private static List<Endpoint> parseEndpointsList(Iterable<JsonValue> items) {
         List<Endpoint> endpoints = new ArrayList<Endpoint>();
-        for (JsonValue item : toJsonArray(endpointsListJson.get("items"))) {
+        for (JsonValue item : items) {
             endpoints.addAll(parseEndpoints(item));
         }
         return endpoints;
@@ -297,33 +837,43 @@ class KubernetesClient {
      * <p>
      * The algorithm to fetch public IPs is as follows:
      * <ol>
-     * <li>Use Kubernetes API (/endpoints) to find dedicated services for each POD</li>
+     * <li>Use Kubernetes API (/endpoints) to find dedicated services for each POD, fetching only the endpoints which
+     * were not already fetched in this discovery round</li>
+     * <li>Use Kubernetes API (/services) to list all services at once</li>
      * <li>For each POD:
      * <ol>
-     * <li>Use Kubernetes API (/services) to find the LoadBalancer External IP and Service Port</li>
+     * <li>Use the listed service to find the LoadBalancer External IP and Service Port</li>
      * <li>If not found, then use Kubernetes API (/nodes) to find External IP of the Node</li>
      * </ol>
      * </li>
      * </ol>
      */
-    private List<Endpoint> enrichWithPublicAddresses(List<Endpoint> endpoints) {
+    private List<Endpoint> enrichWithPublicAddresses(DiscoveryRound round, DiscoveryResource resource, List<Endpoint> endpoints,
+                                                     Iterable<JsonValue> fetchedEndpoints) {
+        Map<EndpointAddress, EndpointAddress> publicAddresses = cachedPublicAddresses(round, endpoints);
+        List<EndpointAddress> privateAddresses = privateAddresses(endpoints);
+        privateAddresses.removeAll(publicAddresses.keySet());
+        if (privateAddresses.isEmpty()) {
+            return createEndpoints(endpoints, publicAddresses);
+        }
         try {
-            String endpointsUrl = String.format("%s/api/v1/namespaces/%s/endpoints", kubernetesMaster, namespace);
-            JsonObject endpointsJson = callGet(endpointsUrl);
+            JsonObject endpointsJson = allEndpoints(round, resource, fetchedEndpoints);
 
-            List<EndpointAddress> privateAddresses = privateAddresses(endpoints);
+            // Services are looked up only once every POD is known to have a dedicated one.
             Map<EndpointAddress, String> services = extractServices(endpointsJson, privateAddresses);
             Map<EndpointAddress, String> nodes = extractNodes(endpointsJson, privateAddresses);
+            Map<String, JsonObject> serviceJsons = services(round, new HashSet<String>(services.values()));
 
             Map<EndpointAddress, String> publicIps = new HashMap<EndpointAddress, String>();
             Map<EndpointAddress, Integer> publicPorts = new HashMap<EndpointAddress, Integer>();
-            Map<String, String> cachedNodePublicIps = new HashMap<String, String>();
+            Map<EndpointAddress, String> nodePortAddresses = new HashMap<EndpointAddress, String>();
 
             for (Map.Entry<EndpointAddress, String> serviceEntry : services.entrySet()) {
                 EndpointAddress privateAddress = serviceEntry.getKey();
-                String service = serviceEntry.getValue();
-                String serviceUrl = String.format("%s/api/v1/namespaces/%s/services/%s", kubernetesMaster, namespace, service);
-                JsonObject serviceJson = callGet(serviceUrl);
+                JsonObject serviceJson = serviceJsons.get(serviceEntry.getValue());
+                if (serviceJson == null) {
+                    throw new KubernetesClientException(String.format("Cannot fetch service %s", serviceEntry.getValue()));
+                }
                 try {
                     String loadBalancerIp = extractLoadBalancerIp(serviceJson);
                     Integer servicePort = extractServicePort(serviceJson);
@@ -331,21 +881,25 @@ class KubernetesClient {
                     publicPorts.put(privateAddress, servicePort);
                 } catch (Exception e) {
                     // Load Balancer public IP cannot be found, try using NodePort.
-                    Integer nodePort = extractNodePort(serviceJson);
-                    String node = nodes.get(privateAddress);
-                    String nodePublicAddress;
-                    if (cachedNodePublicIps.containsKey(node)) {
-                        nodePublicAddress = cachedNodePublicIps.get(node);
-                    } else {
-                        nodePublicAddress = externalAddressForNode(node);
-                        cachedNodePublicIps.put(node, nodePublicAddress);
-                    }
-                    publicIps.put(privateAddress, nodePublicAddress);
-                    publicPorts.put(privateAddress, nodePort);
+                    publicPorts.put(privateAddress, extractNodePort(serviceJson));
+                    nodePortAddresses.put(privateAddress, nodes.get(privateAddress));
                 }
             }
 
-            return createEndpoints(endpoints, publicIps, publicPorts);
+            Map<String, String> nodeAddresses = externalAddressesForNodes(round, new HashSet<String>(nodePortAddresses.values()));
+            for (Map.Entry<EndpointAddress, String> nodePortAddress : nodePortAddresses.entrySet()) {
+                publicIps.put(nodePortAddress.getKey(), nodeAddresses.get(nodePortAddress.getValue()));
+            }
+
+            for (EndpointAddress privateAddress : privateAddresses) {
+                EndpointAddress publicAddress = new EndpointAddress(publicIps.get(privateAddress),
+                        publicPorts.get(privateAddress));
+                publicAddresses.put(privateAddress, publicAddress);
+                if (services.containsKey(privateAddress)) {
+                    publicAddressCache.put(privateAddress, publicAddress);
+                }
+            }
+            return createEndpoints(endpoints, publicAddresses);
         } catch (Exception e) {
             LOGGER.finest(e);
             // Log warning only once.
@@ -355,10 +909,51 @@ class KubernetesClient {
                                 + "outside of the Kubernetes network");
                 isNoPublicIpAlreadyLogged = true;
             }
-            return endpoints;
+            return createEndpoints(endpoints, publicAddresses);
         }
     }
 
+    /**
+     * Returns the public addresses of {@code endpoints} which are known from the previous discovery rounds.
+     */
+    private Map<EndpointAddress, EndpointAddress> cachedPublicAddresses(DiscoveryRound round, List<Endpoint> endpoints) {
+        Map<EndpointAddress, EndpointAddress> result = new HashMap<EndpointAddress, EndpointAddress>();
+        if (!publicAddressCache.isEnabled()) {
+            return result;
+        }
+        publicAddressCache.evictExpired();
+        for (Endpoint endpoint : endpoints) {
+            EndpointAddress publicAddress = publicAddressCache.get(endpoint.getPrivateAddress());
+            if (publicAddress != null) {
+                round.publicAddressCacheHit();
+                result.put(endpoint.getPrivateAddress(), publicAddress);
+            } else {
+                round.publicAddressCacheMiss();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all endpoints in the namespace. Only the endpoints which are not selected by {@code resource} are fetched,
+     * the selected ones are already known from the same discovery round.
+     */
+    private JsonObject allEndpoints(DiscoveryRound round, DiscoveryResource resource, Iterable<JsonValue> fetchedEndpoints) {
+        boolean endpointSlices = resource.isPods() ? useEndpointSlices : resource.isEndpointSlices();
+        DiscoveryResource allEndpoints = endpointSlices ? DiscoveryResource.endpointSlices() : DiscoveryResource.endpoints();
+        if (resource.isPods()) {
+            return new JsonObject().add("items", listEndpoints(round, allEndpoints));
+        }
+        JsonArray items = new JsonArray();
+        for (JsonValue item : fetchedEndpoints) {
+            items.add(item);
+        }
+        for (JsonValue item : listEndpoints(round, allEndpoints, resource.getOtherSelector())) {
+            items.add(item);
+        }
+        return new JsonObject().add("items", items);
+    }
+
     private static List<EndpointAddress> privateAddresses(List<Endpoint> endpoints) {
         List<EndpointAddress> result = new ArrayList<EndpointAddress>();
         for (Endpoint endpoint : endpoints) {
@@ -390,6 +985,45 @@ class KubernetesClient {
         return result;
     }
 
+    /**
+     * Fetches the given services with a single LIST call instead of one GET call per service.
+     * <p>
+     * If listing services is not possible (e.g. RBAC allows only reading the services by name), falls back to fetching
+     * the services one by one.
+     */
+    private Map<String, JsonObject> services(DiscoveryRound round, Set<String> serviceNames) {
+        Map<String, JsonObject> result = new HashMap<String, JsonObject>();
+        if (!isServicesListForbidden) {
+            try {
+                String servicesUrl = String.format("%s/api/v1/namespaces/%s/services", kubernetesMaster, namespace);
+                for (JsonValue item : toJsonArray(consistentGet(round, servicesUrl, SERVICES_LIST_PARSER, true).get("items"))) {
+                    String service = toString(item.asObject().get("metadata").asObject().get("name"));
+                    if (serviceNames.contains(service)) {
+                        result.put(service, item.asObject());
+                    }
+                }
+                return result;
+            } catch (RestClientException e) {
+                LOGGER.fine(String.format("Cannot list services, fetching them one by one: %s", e.getMessage()));
+                isServicesListForbidden = isForbidden(e);
+            }
+        }
+        Map<String, CompletableFuture<JsonObject>> fetches = new HashMap<String, CompletableFuture<JsonObject>>();
+        for (String service : serviceNames) {
+            String serviceUrl = String.format("%s/api/v1/namespaces/%s/services/%s", kubernetesMaster, namespace, service);
+            fetches.put(service, callGetAsync(round, serviceUrl, SERVICE_PARSER));
+        }
+        for (Map.Entry<String, CompletableFuture<JsonObject>> fetch : fetches.entrySet()) {
+            result.put(fetch.getKey(), round.join(fetch.getValue()));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static boolean isForbidden(RestClientException e) {
+        return e.getHttpErrorCode() == 401 || e.getHttpErrorCode() == 403;
+    }
+
     private static Map<EndpointAddress, String> extractNodes(JsonObject endpointsListJson,
                                                              List<EndpointAddress> privateAddresses) {
         Map<EndpointAddress, String> result = new HashMap<EndpointAddress, String>();
@@ -458,34 +1092,104 @@ class KubernetesClient {
         return ports.get(0).asObject().get("nodePort").asInt();
     }
 
-    private String externalAddressForNode(String node) {
-        String nodeExternalAddress;
-        if (useNodeNameAsExternalAddress) {
+    private Map<String, String> externalAddressesForNodes(DiscoveryRound round, Set<String> nodes) {
+        if (!useNodeNameAsExternalAddress) {
+            return nodePublicIps(round, nodes);
+        }
+        Map<String, String> result = new HashMap<String, String>();
+        for (String node : nodes) {
             LOGGER.info("Using node name instead of public IP for node, must be available from client: " + node);
-            nodeExternalAddress = node;
-        } else {
-            String nodeUrl = String.format("%s/api/v1/nodes/%s", kubernetesMaster, node);
-            nodeExternalAddress = extractNodePublicIp(callGet(nodeUrl));
+            result.put(node, node);
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the External IPs of the nodes in the node index, listing all nodes with a single call if any node is not
+     * known yet or the index has expired. This way the index picks up added nodes, changed External IPs and drops removed
+     * nodes.
+     * <p>
+     * If listing nodes is not possible (e.g. RBAC allows only reading the nodes by name), fetches the nodes concurrently.
+     */
+    private Map<String, String> nodePublicIps(DiscoveryRound round, Set<String> nodes) {
+        Map<String, String> externalIps = nodeExternalIps;
+        boolean expired = System.nanoTime() - nodeExternalIpsListedAtNanos >= nodeIndexTtlNanos;
+        if ((expired || !externalIps.keySet().containsAll(nodes)) && !isNodesListForbidden) {
+            externalIps = listNodeExternalIps(round);
+        }
+        Map<String, String> result = new HashMap<String, String>();
+        Map<String, CompletableFuture<JsonObject>> fetches = new HashMap<String, CompletableFuture<JsonObject>>();
+        for (String node : nodes) {
+            if (externalIps.containsKey(node)) {
+                String externalIp = externalIps.get(node);
+                if (externalIp == null) {
+                    throw new KubernetesClientException("Node does not have ExternalIP assigned");
+                }
+                result.put(node, externalIp);
+            } else {
+                fetches.put(node, callGetAsync(round, String.format("%s/api/v1/nodes/%s", kubernetesMaster, node), NODE_PARSER));
+            }
+        }
+        for (Map.Entry<String, CompletableFuture<JsonObject>> fetch : fetches.entrySet()) {
+            result.put(fetch.getKey(), extractNodePublicIp(round.join(fetch.getValue())));
+        }
+        return result;
+    }
+
+    private Map<String, String> listNodeExternalIps(DiscoveryRound round) {
+        try {
+            String nodesUrl = String.format("%s/api/v1/nodes", kubernetesMaster);
+            Map<String, String> result = new HashMap<String, String>();
+            JsonObject nodes = consistentGet(round, nodesUrl, NODES_LIST_PARSER, true);
+            for (JsonValue item : toJsonArray(nodes.get("items"))) {
+                String node = toString(item.asObject().get("metadata").asObject().get("name"));
+                result.put(node, findNodePublicIp(item.asObject()));
+            }
+            nodeExternalIps = result;
+            nodeExternalIpsListedAtNanos = System.nanoTime();
+            return result;
+        } catch (RestClientException e) {
+            LOGGER.fine(String.format("Cannot list nodes, fetching them one by one: %s", e.getMessage()));
+            isNodesListForbidden = isForbidden(e);
+            return nodeExternalIps;
         }
-        return nodeExternalAddress;
     }
 
     private static String extractNodePublicIp(JsonObject nodeJson) {
-        for (JsonValue address : toJsonArray(nodeJson.get("status").asObject().get("addresses"))) {
+        String externalIp = findNodePublicIp(nodeJson);
+        if (externalIp == null) {
+            throw new KubernetesClientException("Node does not have ExternalIP assigned");
+        }
+        return externalIp;
+    }
+
+    private static String findNodePublicIp(JsonObject nodeJson) {
+        JsonValue status = nodeJson.get("status");
+        if (status == null) {
+            return null;
+        }
+        for (JsonValue address : toJsonArray(status.asObject().get("addresses"))) {
             if ("ExternalIP".equals(address.asObject().get("type").asString())) {
                 return address.asObject().get("address").asString();
             }
         }
-        throw new KubernetesClientException("Node does not have ExternalIP assigned");
+        return null;
     }
 
-    private static List<Endpoint> createEndpoints(List<Endpoint> endpoints, Map<EndpointAddress, String> publicIps,
-                                                  Map<EndpointAddress, Integer> publicPorts) {
+    /**
+     * Sets the public addresses of {@code endpoints}, keeping the endpoints not present in {@code publicAddresses}
+     * as they are.
+     */
+    private static List<Endpoint> createEndpoints(List<Endpoint> endpoints,
+                                                  Map<EndpointAddress, EndpointAddress> publicAddresses) {
         List<Endpoint> result = new ArrayList<Endpoint>();
         for (Endpoint endpoint : endpoints) {
             EndpointAddress privateAddress = endpoint.getPrivateAddress();
-            EndpointAddress publicAddress = new EndpointAddress(publicIps.get(privateAddress),
-                    publicPorts.get(privateAddress));
+            if (!publicAddresses.containsKey(privateAddress)) {
+                result.add(endpoint);
+                continue;
+            }
+            EndpointAddress publicAddress = publicAddresses.get(privateAddress);
             result.add(new Endpoint(privateAddress, publicAddress, endpoint.isReady(), endpoint.getAdditionalProperties()));
         }
         return result;
@@ -494,21 +1198,111 @@ class KubernetesClient {
     /**
      * Makes a REST call to Kubernetes API and returns the result JSON.
      *
+     * @param round     discovery round the call is made in
      * @param urlString Kubernetes API REST endpoint
+     * @param parser    parser selecting the fields to read from the response
      * @return parsed JSON
      * @throws KubernetesClientException if Kubernetes API didn't respond with 200 and a valid JSON content
      */
-    private JsonObject callGet(final String urlString) {
-        return RetryUtils.retry(new Callable<JsonObject>() {
+    private JsonObject callGet(DiscoveryRound round, String urlString, SelectiveJsonParser parser) {
+        return callGet(round, urlString, parser, null);
+    }
+
+    /**
+     * Starts {@link #callGet(DiscoveryRound, String, SelectiveJsonParser)} in the background, so that independent calls
+     * of one discovery round are made concurrently.
+     */
+    private CompletableFuture<JsonObject> callGetAsync(final DiscoveryRound round, final String urlString,
+                                                       final SelectiveJsonParser parser) {
+        return CompletableFuture.supplyAsync(new Supplier<JsonObject>() {
+            @Override
+            public JsonObject get() {
+                round.checkDeadline();
+                return callGet(round, urlString, parser);
+            }
+        }, apiCallExecutor);
+    }
+
+    /**
+     * Fetches only the metadata of the object at {@code urlString}, falling back to fetching the whole object if the API
+     * server rejects the metadata-only representation.
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    private JsonObject callGetMetadata(DiscoveryRound round, String urlString, SelectiveJsonParser parser) {
+        try {
+            return callGet(round, urlString, parser, METADATA_ONLY);
+        } catch (RestClientException e) {
+            if (e.getHttpErrorCode() != 406) {
+                throw e;
+            }
+            LOGGER.fine(String.format("Cannot fetch metadata only, fetching whole object: %s", e.getMessage()));
+            return callGet(round, urlString, parser);
+        }
+    }
+
+    private JsonObject callGet(final DiscoveryRound round, final String urlString, final SelectiveJsonParser parser,
+                               final String accept) {
+        // Equal calls (also of other clients in this JVM) made at the same time share one call and its result.
+        List<Object> key = asList(urlString, accept, parser, useProtobuf, apiToken);
+        return IN_FLIGHT_GETS.execute(key, new Callable<JsonObject>() {
             @Override
             public JsonObject call() {
-                return Json
-                        .parse(RestClient.create(urlString).withHeader("Authorization", String.format("Bearer %s", apiToken))
-                                .withCaCertificates(caCertificate)
-                                .get())
-                        .asObject();
+                return retryGet(round, urlString, parser, accept);
             }
-        }, retries, NON_RETRYABLE_KEYWORDS);
+        });
+    }
+
+    private JsonObject retryGet(final DiscoveryRound round, final String urlString, final SelectiveJsonParser parser,
+                                final String accept) {
+        RequestHedger.AbortableCall<JsonObject> attempt = new RequestHedger.AbortableCall<JsonObject>() {
+            @Override
+            public JsonObject call(CompletableFuture<?> abortSignal) {
+                round.checkDeadline();
+                round.apiCall();
+                RestClient restClient = restClient(urlString)
+                        .withAbortSignal(abortSignal)
+                        .withTimeoutMillis(round.callTimeoutMillis())
+                        .withRateLimiter(rateLimiter, round.rateLimiterWaitNanosCounter())
+                        .withReceivedBytesCounter(round.receivedBytesCounter())
+                        .withDecodedBytesCounter(round.decodedBytesCounter());
+                KubernetesProtobuf protobuf = useProtobuf && accept == null ? PROTOBUF_DECODERS.get(parser) : null;
+                if (protobuf != null) {
+                    restClient.withHeader("Accept", String.format("%s,application/json", KubernetesProtobuf.CONTENT_TYPE));
+                    return restClient.get(parser, KubernetesProtobuf.CONTENT_TYPE, protobuf);
+                }
+                if (accept != null) {
+                    restClient.withHeader("Accept", accept);
+                }
+                return restClient.get(parser);
+            }
+        };
+        Callable<JsonObject> call = requestHedger != null ? requestHedger.hedged(urlString, attempt)
+                : RequestHedger.unhedged(attempt);
+        return RetryUtils.retry(circuitBreaker != null ? circuitBreaker.guarded(call) : call, retries, NON_RETRYABLE_KEYWORDS,
+                round);
+    }
+
+    private RestClient restClient(String urlString) {
+        return RestClient.create(urlString)
+                .withHeader("Authorization", String.format("Bearer %s", apiToken))
+                .withGzip(useGzip)
+                .withRateLimiter(rateLimiter, null)
+                .withCaCertificates(caCertificate());
+    }
+
+    /**
+     * Returns the current CA certificate, re-reading it if the certificate file changed since it was last read.
+     */
+    synchronized String caCertificate() {
+        if (caCertificateFile != null) {
+            long lastModified = new File(caCertificateFile).lastModified();
+            if (lastModified != caCertificateLastModified) {
+                LOGGER.info(String.format("CA certificate file '%s' changed, reloading it", caCertificateFile));
+                caCertificate = KubernetesConfig.readFileContents(caCertificateFile);
+                caCertificateLastModified = lastModified;
+            }
+        }
+        return caCertificate;
     }
 
     @SuppressWarnings("checkstyle:magicnumber")
@@ -533,6 +1327,14 @@ class KubernetesClient {
         return emptyList();
     }
 
+    private static JsonArray jsonArrayOf(Iterable<JsonValue> values) {
+        JsonArray result = new JsonArray();
+        for (JsonValue value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
     private static JsonArray toJsonArray(JsonValue jsonValue) {
         if (jsonValue == null || jsonValue.isNull()) {
             return new JsonArray();
@@ -597,6 +1399,38 @@ class KubernetesClient {
         Map<String, String> getAdditionalProperties() {
             return additionalProperties;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Endpoint endpoint = (Endpoint) o;
+
+            if (isReady != endpoint.isReady) {
+                return false;
+            }
+            if (privateAddress != null ? !privateAddress.equals(endpoint.privateAddress) : endpoint.privateAddress != null) {
+                return false;
+            }
+            if (publicAddress != null ? !publicAddress.equals(endpoint.publicAddress) : endpoint.publicAddress != null) {
+                return false;
+            }
+            return additionalProperties.equals(endpoint.additionalProperties);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = privateAddress != null ? privateAddress.hashCode() : 0;
+            result = 31 * result + (publicAddress != null ? publicAddress.hashCode() : 0);
+            result = 31 * result + (isReady ? 1 : 0);
+            result = 31 * result + additionalProperties.hashCode();
+            return result;
+        }
     }
 
     static final class EndpointAddress {
@@ -27,10 +27,33 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Map;
 
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_CIRCUIT_BREAKER_OPEN_SECONDS;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_CIRCUIT_BREAKER_THRESHOLD;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_ENDPOINT_SLICES;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_FALLBACK_SERVICE_DNS;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_GZIP;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_HEDGE_BUDGET_PERCENT;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_HEDGE_PERCENTILE;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_MAX_CONCURRENT_REQUESTS;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_MAX_STALENESS_SECONDS;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_NODE_INDEX_TTL_SECONDS;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_PAGE_SIZE;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_PARALLELISM;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_POD_FIELD_SELECTOR;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_PROTOBUF;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_PUBLIC_ADDRESS_CACHE_TTL_SECONDS;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_RATE_LIMIT;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_RATE_LIMIT_BURST;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_READ_CONSISTENCY;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_REFRESH_INTERVAL_SECONDS;
 import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_RETIRES;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_ROUND_TIMEOUT_SECONDS;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_SNAPSHOT_FILE;
 import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_TOKEN;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_WATCH;
 import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_CA_CERTIFICATE;
 import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_MASTER_URL;
 import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_SYSTEM_PREFIX;
@@ -49,11 +72,22 @@ import static com.hazelcast.kubernetes.KubernetesProperties.USE_NODE_NAME_AS_EXT
 /**
  * Responsible for fetching, parsing, and validating Hazelcast Kubernetes Discovery Strategy input properties.
  */
-@SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity"})
+@SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity", "checkstyle:methodcount"})
 final class KubernetesConfig {
+    // also the defaults of KubernetesClient, which is created without the configuration in tests
+    static final int DEFAULT_API_PARALLELISM = 4;
+    static final int DEFAULT_NODE_INDEX_TTL = 60;
+
     private static final String DEFAULT_MASTER_URL = "https://kubernetes.default.svc";
     private static final int DEFAULT_SERVICE_DNS_TIMEOUT_SECONDS = 5;
     private static final int DEFAULT_KUBERNETES_API_RETRIES = 3;
+    private static final int DEFAULT_ROUND_TIMEOUT = 60;
+    private static final int DEFAULT_HEDGE_BUDGET = 5;
+    private static final int MAX_PERCENTILE = 100;
+    private static final int DEFAULT_CIRCUIT_BREAKER_OPEN = 30;
+    private static final int DEFAULT_PUBLIC_ADDRESS_CACHE_TTL = 60;
+    private static final int DEFAULT_MAX_STALENESS = 300;
+    private static final String DEFAULT_CA_CERTIFICATE_FILE = "/var/run/secrets/kubernetes.io/serviceaccount/ca.crt";
 
     // Parameters for DNS Lookup mode
     private final String serviceDns;
@@ -69,13 +103,37 @@ final class KubernetesConfig {
     private final boolean resolveNotReadyAddresses;
     private final boolean useNodeNameAsExternalAddress;
     private final int kubernetesApiRetries;
+    private final boolean kubernetesApiWatch;
+    private final boolean kubernetesApiEndpointSlices;
+    private final int kubernetesApiPageSize;
+    private final ReadConsistency kubernetesApiReadConsistency;
+    private final String kubernetesApiPodFieldSelector;
+    private final boolean kubernetesApiProtobuf;
+    private final boolean kubernetesApiGzip;
+    private final int kubernetesApiParallelism;
+    private final int kubernetesApiRoundTimeoutSeconds;
+    private final int kubernetesApiPublicAddressCacheTtlSeconds;
+    private final int kubernetesApiRefreshIntervalSeconds;
+    private final int kubernetesApiMaxStalenessSeconds;
+    private final String kubernetesApiSnapshotFile;
+    private final int kubernetesApiRateLimit;
+    private final int kubernetesApiRateLimitBurst;
+    private final int kubernetesApiMaxConcurrentRequests;
+    private final int kubernetesApiHedgePercentile;
+    private final int kubernetesApiHedgeBudgetPercent;
+    private final int kubernetesApiCircuitBreakerThreshold;
+    private final int kubernetesApiCircuitBreakerOpenSeconds;
+    private final String kubernetesApiFallbackServiceDns;
+    private final int kubernetesApiNodeIndexTtlSeconds;
     private final String kubernetesMasterUrl;
     private final String kubernetesApiToken;
     private final String kubernetesCaCertificate;
+    private final String kubernetesCaCertificateFile;
 
     // Parameters for both DNS Lookup and Kubernetes API modes
     private final int servicePort;
 
+    @SuppressWarnings({"checkstyle:executablestatementcount", "checkstyle:methodlength"})
     KubernetesConfig(Map<String, Comparable> properties) {
         this.serviceDns = getOrNull(properties, KUBERNETES_SYSTEM_PREFIX, SERVICE_DNS);
         this.serviceDnsTimeout
@@ -90,9 +148,48 @@ final class KubernetesConfig {
                 = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, USE_NODE_NAME_AS_EXTERNAL_ADDRESS, false);
         this.kubernetesApiRetries
                 = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_RETIRES, DEFAULT_KUBERNETES_API_RETRIES);
+        this.kubernetesApiWatch = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_WATCH, false);
+        this.kubernetesApiEndpointSlices
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_ENDPOINT_SLICES, false);
+        this.kubernetesApiPageSize = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_PAGE_SIZE, 0);
+        this.kubernetesApiReadConsistency = readConsistency(properties);
+        this.kubernetesApiPodFieldSelector = getOrNull(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_POD_FIELD_SELECTOR);
+        this.kubernetesApiProtobuf = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_PROTOBUF, false);
+        this.kubernetesApiGzip = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_GZIP, true);
+        this.kubernetesApiParallelism
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_PARALLELISM, DEFAULT_API_PARALLELISM);
+        this.kubernetesApiRoundTimeoutSeconds
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_ROUND_TIMEOUT_SECONDS, DEFAULT_ROUND_TIMEOUT);
+        this.kubernetesApiPublicAddressCacheTtlSeconds
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_PUBLIC_ADDRESS_CACHE_TTL_SECONDS,
+                DEFAULT_PUBLIC_ADDRESS_CACHE_TTL);
+        this.kubernetesApiRefreshIntervalSeconds
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_REFRESH_INTERVAL_SECONDS, 0);
+        this.kubernetesApiMaxStalenessSeconds
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_MAX_STALENESS_SECONDS, DEFAULT_MAX_STALENESS);
+        this.kubernetesApiSnapshotFile = getOrNull(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_SNAPSHOT_FILE);
+        this.kubernetesApiRateLimit = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_RATE_LIMIT, 0);
+        this.kubernetesApiRateLimitBurst = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_RATE_LIMIT_BURST, 0);
+        this.kubernetesApiMaxConcurrentRequests
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_MAX_CONCURRENT_REQUESTS, 0);
+        this.kubernetesApiHedgePercentile
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_HEDGE_PERCENTILE, 0);
+        this.kubernetesApiHedgeBudgetPercent
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_HEDGE_BUDGET_PERCENT, DEFAULT_HEDGE_BUDGET);
+        this.kubernetesApiCircuitBreakerThreshold
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_CIRCUIT_BREAKER_THRESHOLD, 0);
+        this.kubernetesApiCircuitBreakerOpenSeconds
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_CIRCUIT_BREAKER_OPEN_SECONDS,
+                DEFAULT_CIRCUIT_BREAKER_OPEN);
+        this.kubernetesApiFallbackServiceDns
+                = getOrNull(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_FALLBACK_SERVICE_DNS);
+        this.kubernetesApiNodeIndexTtlSeconds
+                = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_NODE_INDEX_TTL_SECONDS,
+                DEFAULT_NODE_INDEX_TTL);
         this.kubernetesMasterUrl = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_MASTER_URL, DEFAULT_MASTER_URL);
         this.kubernetesApiToken = getApiToken(properties);
         this.kubernetesCaCertificate = caCertificate(properties);
+        this.kubernetesCaCertificateFile = caCertificateFile(properties);
         this.servicePort = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, SERVICE_PORT, 0);
         this.namespace = getNamespaceWithFallbacks(properties, KUBERNETES_SYSTEM_PREFIX, NAMESPACE);
 
@@ -135,6 +232,26 @@ final class KubernetesConfig {
         return caCertificate;
     }
 
+    private String caCertificateFile(Map<String, Comparable> properties) {
+        if (getOrNull(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_CA_CERTIFICATE) == null
+                && getMode() == DiscoveryMode.KUBERNETES_API) {
+            return DEFAULT_CA_CERTIFICATE_FILE;
+        }
+        return null;
+    }
+
+    private ReadConsistency readConsistency(Map<String, Comparable> properties) {
+        String value = getOrDefault(properties, KUBERNETES_SYSTEM_PREFIX, KUBERNETES_API_READ_CONSISTENCY,
+                ReadConsistency.STRONG.toString());
+        for (ReadConsistency readConsistency : ReadConsistency.values()) {
+            if (readConsistency.toString().equalsIgnoreCase(value.trim())) {
+                return readConsistency;
+            }
+        }
+        throw new InvalidConfigurationException(String.format("Property '%s' must be one of: %s",
+                KUBERNETES_API_READ_CONSISTENCY.key(), Arrays.toString(ReadConsistency.values())));
+    }
+
     @SuppressFBWarnings("DMI_HARDCODED_ABSOLUTE_FILENAME")
     private static String readAccountToken() {
         return readFileContents("/var/run/secrets/kubernetes.io/serviceaccount/token");
@@ -142,7 +259,7 @@ final class KubernetesConfig {
 
     @SuppressFBWarnings("DMI_HARDCODED_ABSOLUTE_FILENAME")
     private static String readCaCertificate() {
-        return readFileContents("/var/run/secrets/kubernetes.io/serviceaccount/ca.crt");
+        return readFileContents(DEFAULT_CA_CERTIFICATE_FILE);
     }
 
     @SuppressFBWarnings("DMI_HARDCODED_ABSOLUTE_FILENAME")
@@ -241,17 +358,35 @@ final class KubernetesConfig {
                     String.format("Properties '%s' and '%s' cannot be defined at the same time",
                             SERVICE_LABEL_NAME.key(), POD_LABEL_NAME.key()));
         }
-        if (serviceDnsTimeout < 0) {
+        validateNonNegative(serviceDnsTimeout, SERVICE_DNS_TIMEOUT);
+        validateNonNegative(kubernetesApiRetries, KUBERNETES_API_RETIRES);
+        validateNonNegative(kubernetesApiPageSize, KUBERNETES_API_PAGE_SIZE);
+        if (kubernetesApiParallelism < 1) {
             throw new InvalidConfigurationException(
-                    String.format("Property '%s' cannot be a negative number", SERVICE_DNS_TIMEOUT.key()));
+                    String.format("Property '%s' must be a positive number", KUBERNETES_API_PARALLELISM.key()));
         }
-        if (kubernetesApiRetries < 0) {
+        validateNonNegative(kubernetesApiRoundTimeoutSeconds, KUBERNETES_API_ROUND_TIMEOUT_SECONDS);
+        validateNonNegative(kubernetesApiPublicAddressCacheTtlSeconds, KUBERNETES_API_PUBLIC_ADDRESS_CACHE_TTL_SECONDS);
+        validateNonNegative(kubernetesApiRefreshIntervalSeconds, KUBERNETES_API_REFRESH_INTERVAL_SECONDS);
+        validateNonNegative(kubernetesApiMaxStalenessSeconds, KUBERNETES_API_MAX_STALENESS_SECONDS);
+        validateNonNegative(kubernetesApiRateLimit, KUBERNETES_API_RATE_LIMIT);
+        validateNonNegative(kubernetesApiRateLimitBurst, KUBERNETES_API_RATE_LIMIT_BURST);
+        validateNonNegative(kubernetesApiMaxConcurrentRequests, KUBERNETES_API_MAX_CONCURRENT_REQUESTS);
+        if (kubernetesApiHedgePercentile < 0 || kubernetesApiHedgePercentile > MAX_PERCENTILE) {
             throw new InvalidConfigurationException(
-                    String.format("Property '%s' cannot be a negative number", KUBERNETES_API_RETIRES.key()));
+                    String.format("Property '%s' must be between 0 and 100", KUBERNETES_API_HEDGE_PERCENTILE.key()));
         }
-        if (servicePort < 0) {
+        validateNonNegative(kubernetesApiHedgeBudgetPercent, KUBERNETES_API_HEDGE_BUDGET_PERCENT);
+        validateNonNegative(kubernetesApiCircuitBreakerThreshold, KUBERNETES_API_CIRCUIT_BREAKER_THRESHOLD);
+        validateNonNegative(kubernetesApiCircuitBreakerOpenSeconds, KUBERNETES_API_CIRCUIT_BREAKER_OPEN_SECONDS);
+        validateNonNegative(kubernetesApiNodeIndexTtlSeconds, KUBERNETES_API_NODE_INDEX_TTL_SECONDS);
+        validateNonNegative(servicePort, SERVICE_PORT);
+    }
+
+    private static void validateNonNegative(int value, PropertyDefinition property) {
+        if (value < 0) {
             throw new InvalidConfigurationException(
-                    String.format("Property '%s' cannot be a negative number", SERVICE_PORT.key()));
+                    String.format("Property '%s' cannot be a negative number", property.key()));
         }
     }
 
@@ -307,6 +442,94 @@ final class KubernetesConfig {
         return kubernetesApiRetries;
     }
 
+    boolean isKubernetesApiWatch() {
+        return kubernetesApiWatch;
+    }
+
+    boolean isKubernetesApiEndpointSlices() {
+        return kubernetesApiEndpointSlices;
+    }
+
+    int getKubernetesApiPageSize() {
+        return kubernetesApiPageSize;
+    }
+
+    ReadConsistency getKubernetesApiReadConsistency() {
+        return kubernetesApiReadConsistency;
+    }
+
+    String getKubernetesApiPodFieldSelector() {
+        return kubernetesApiPodFieldSelector;
+    }
+
+    boolean isKubernetesApiProtobuf() {
+        return kubernetesApiProtobuf;
+    }
+
+    boolean isKubernetesApiGzip() {
+        return kubernetesApiGzip;
+    }
+
+    int getKubernetesApiParallelism() {
+        return kubernetesApiParallelism;
+    }
+
+    int getKubernetesApiRoundTimeoutSeconds() {
+        return kubernetesApiRoundTimeoutSeconds;
+    }
+
+    int getKubernetesApiPublicAddressCacheTtlSeconds() {
+        return kubernetesApiPublicAddressCacheTtlSeconds;
+    }
+
+    int getKubernetesApiRefreshIntervalSeconds() {
+        return kubernetesApiRefreshIntervalSeconds;
+    }
+
+    int getKubernetesApiMaxStalenessSeconds() {
+        return kubernetesApiMaxStalenessSeconds;
+    }
+
+    String getKubernetesApiSnapshotFile() {
+        return kubernetesApiSnapshotFile;
+    }
+
+    int getKubernetesApiRateLimit() {
+        return kubernetesApiRateLimit;
+    }
+
+    int getKubernetesApiRateLimitBurst() {
+        return kubernetesApiRateLimitBurst;
+    }
+
+    int getKubernetesApiMaxConcurrentRequests() {
+        return kubernetesApiMaxConcurrentRequests;
+    }
+
+    int getKubernetesApiHedgePercentile() {
+        return kubernetesApiHedgePercentile;
+    }
+
+    int getKubernetesApiHedgeBudgetPercent() {
+        return kubernetesApiHedgeBudgetPercent;
+    }
+
+    int getKubernetesApiCircuitBreakerThreshold() {
+        return kubernetesApiCircuitBreakerThreshold;
+    }
+
+    int getKubernetesApiCircuitBreakerOpenSeconds() {
+        return kubernetesApiCircuitBreakerOpenSeconds;
+    }
+
+    String getKubernetesApiFallbackServiceDns() {
+        return kubernetesApiFallbackServiceDns;
+    }
+
+    int getKubernetesApiNodeIndexTtlSeconds() {
+        return kubernetesApiNodeIndexTtlSeconds;
+    }
+
     String getKubernetesMasterUrl() {
         return kubernetesMasterUrl;
     }
@@ -319,6 +542,13 @@ final class KubernetesConfig {
         return kubernetesCaCertificate;
     }
 
+    /**
+     * Returns the file the CA certificate was read from or {@code null} if it was provided with a property.
+     */
+    String getKubernetesCaCertificateFile() {
+        return kubernetesCaCertificateFile;
+    }
+
     int getServicePort() {
         return servicePort;
     }
@@ -338,6 +568,28 @@ final class KubernetesConfig {
                 + "resolve-not-ready-addresses: " + resolveNotReadyAddresses + ", "
                 + "use-node-name-as-external-address: " + useNodeNameAsExternalAddress + ", "
                 + "kubernetes-api-retries: " + kubernetesApiRetries + ", "
+                + "kubernetes-api-watch: " + kubernetesApiWatch + ", "
+                + "kubernetes-api-endpoint-slices: " + kubernetesApiEndpointSlices + ", "
+                + "kubernetes-api-page-size: " + kubernetesApiPageSize + ", "
+                + "kubernetes-api-read-consistency: " + kubernetesApiReadConsistency + ", "
+                + "kubernetes-api-pod-field-selector: " + kubernetesApiPodFieldSelector + ", "
+                + "kubernetes-api-protobuf: " + kubernetesApiProtobuf + ", "
+                + "kubernetes-api-gzip: " + kubernetesApiGzip + ", "
+                + "kubernetes-api-parallelism: " + kubernetesApiParallelism + ", "
+                + "kubernetes-api-round-timeout-seconds: " + kubernetesApiRoundTimeoutSeconds + ", "
+                + "kubernetes-api-public-address-cache-ttl-seconds: " + kubernetesApiPublicAddressCacheTtlSeconds + ", "
+                + "kubernetes-api-refresh-interval-seconds: " + kubernetesApiRefreshIntervalSeconds + ", "
+                + "kubernetes-api-max-staleness-seconds: " + kubernetesApiMaxStalenessSeconds + ", "
+                + "kubernetes-api-snapshot-file: " + kubernetesApiSnapshotFile + ", "
+                + "kubernetes-api-rate-limit: " + kubernetesApiRateLimit + ", "
+                + "kubernetes-api-rate-limit-burst: " + kubernetesApiRateLimitBurst + ", "
+                + "kubernetes-api-max-concurrent-requests: " + kubernetesApiMaxConcurrentRequests + ", "
+                + "kubernetes-api-hedge-percentile: " + kubernetesApiHedgePercentile + ", "
+                + "kubernetes-api-hedge-budget-percent: " + kubernetesApiHedgeBudgetPercent + ", "
+                + "kubernetes-api-circuit-breaker-threshold: " + kubernetesApiCircuitBreakerThreshold + ", "
+                + "kubernetes-api-circuit-breaker-open-seconds: " + kubernetesApiCircuitBreakerOpenSeconds + ", "
+                + "kubernetes-api-fallback-service-dns: " + kubernetesApiFallbackServiceDns + ", "
+                + "kubernetes-api-node-index-ttl-seconds: " + kubernetesApiNodeIndexTtlSeconds + ", "
                 + "kubernetes-master: " + kubernetesMasterUrl + "}";
     }
 
@@ -345,4 +597,36 @@ final class KubernetesConfig {
         DNS_LOOKUP,
         KUBERNETES_API
     }
+
+    /**
+     * Consistency of the reads from the Kubernetes API.
+     *
+     * @see <a href="https://kubernetes.io/docs/reference/using-api/api-concepts/#semantics-for-get-and-list">
+     * Semantics for get and list</a>
+     */
+    enum ReadConsistency {
+        /**
+         * Most recent data, read from etcd.
+         */
+        STRONG("strong"),
+        /**
+         * Any data, served from the Kubernetes API server cache.
+         */
+        ANY("any"),
+        /**
+         * Data not older than already seen, served from the Kubernetes API server cache if it is fresh enough.
+         */
+        NOT_OLDER_THAN("not-older-than");
+
+        private final String value;
+
+        ReadConsistency(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
 }
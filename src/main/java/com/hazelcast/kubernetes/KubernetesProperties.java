@@ -116,6 +116,188 @@ public final class KubernetesProperties {
      */
     public static final PropertyDefinition KUBERNETES_API_RETIRES = property("kubernetes-api-retries", INTEGER);
 
+    /**
+     * <p>Configuration key: <code>kubernetes-api-watch</code></p>
+     * Defines if discovered endpoints should be kept in memory and updated with the Kubernetes watch API, instead of
+     * listing them on every discovery. Public addresses are looked up only when the endpoints changed. Requires the
+     * <code>watch</code> RBAC verb. Defaults to: false.
+     */
+    public static final PropertyDefinition KUBERNETES_API_WATCH = property("kubernetes-api-watch", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-endpoint-slices</code></p>
+     * Defines if service endpoints should be discovered with the <code>discovery.k8s.io/v1</code> EndpointSlice API
+     * instead of the legacy Endpoints API. Requires Kubernetes 1.21+ and RBAC access to <code>endpointslices</code>.
+     * Defaults to: false.
+     */
+    public static final PropertyDefinition KUBERNETES_API_ENDPOINT_SLICES = property("kubernetes-api-endpoint-slices", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-page-size</code></p>
+     * Defines the maximum number of PODs fetched with a single Kubernetes API call. If set, PODs are listed page by page,
+     * so that the memory used by discovery does not grow with the namespace size. Defaults to: 0 (no paging).
+     * <p>
+     * Kubernetes API servers older than 1.31 ignore the page size of the reads served from their cache, i.e. with
+     * <code>kubernetes-api-read-consistency</code> set to <code>any</code> (and the first read of <code>not-older-than</code>),
+     * and return all PODs at once.
+     */
+    public static final PropertyDefinition KUBERNETES_API_PAGE_SIZE = property("kubernetes-api-page-size", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-read-consistency</code></p>
+     * Consistency of the reads from the Kubernetes API:
+     * <ul>
+     * <li><code>strong</code> (default): the most recent data, read from etcd</li>
+     * <li><code>any</code>: any data, served from the Kubernetes API server cache (<code>resourceVersion=0</code>)</li>
+     * <li><code>not-older-than</code>: data not older than seen in the previous discovery round, served from the Kubernetes API
+     * server cache when it is fresh enough (<code>resourceVersionMatch=NotOlderThan</code>)</li>
+     * </ul>
+     * The reads served from the cache are not paged by Kubernetes API servers older than 1.31, so <code>any</code> defeats
+     * <code>kubernetes-api-page-size</code> there.
+     */
+    public static final PropertyDefinition KUBERNETES_API_READ_CONSISTENCY = property("kubernetes-api-read-consistency", STRING);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-pod-field-selector</code></p>
+     * Field selector applied when discovering PODs (e.g. <code>status.phase=Running</code>), so that the PODs which cannot be
+     * Hazelcast members, like completed jobs, are filtered out by the Kubernetes API and never transferred.
+     */
+    public static final PropertyDefinition KUBERNETES_API_POD_FIELD_SELECTOR = property("kubernetes-api-pod-field-selector",
+            STRING);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-protobuf</code></p>
+     * If set to <code>true</code>, PODs, Endpoints, Services and Nodes are requested in the protobuf encoding, which is smaller
+     * and cheaper to decode than JSON. JSON is still used for the responses the Kubernetes API does not encode in protobuf.
+     */
+    public static final PropertyDefinition KUBERNETES_API_PROTOBUF = property("kubernetes-api-protobuf", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-gzip</code></p>
+     * If set to <code>true</code> (default), the Kubernetes API is asked to compress the responses with gzip.
+     */
+    public static final PropertyDefinition KUBERNETES_API_GZIP = property("kubernetes-api-gzip", BOOLEAN);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-parallelism</code></p>
+     * Maximum number of Kubernetes API calls made concurrently when Services and Nodes are looked up one by one to resolve
+     * the public addresses. Defaults to <code>4</code>, <code>1</code> makes the lookups sequential.
+     */
+    public static final PropertyDefinition KUBERNETES_API_PARALLELISM = property("kubernetes-api-parallelism", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-round-timeout-seconds</code></p>
+     * Time limit in seconds of a single discovery. The connect and read timeouts of the Kubernetes API calls are set to the
+     * time left, failed calls are not retried past the limit and the Service and Node lookups still in progress are
+     * abandoned. Defaults to <code>60</code>, <code>0</code> means no limit.
+     */
+    public static final PropertyDefinition KUBERNETES_API_ROUND_TIMEOUT_SECONDS = property("kubernetes-api-round-timeout-seconds",
+            INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-public-address-cache-ttl-seconds</code></p>
+     * Time in seconds for which the public address resolved for a POD is reused, so that the Services and Nodes are looked up
+     * only for the PODs discovered since. Defaults to <code>60</code>, <code>0</code> disables the cache.
+     */
+    public static final PropertyDefinition KUBERNETES_API_PUBLIC_ADDRESS_CACHE_TTL_SECONDS = property(
+            "kubernetes-api-public-address-cache-ttl-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-refresh-interval-seconds</code></p>
+     * If set to a positive number, the endpoints are discovered in the background every given number of seconds and discovery
+     * returns the last discovered endpoints immediately. Defaults to <code>0</code>, which means the Kubernetes API is called
+     * on every discovery.
+     */
+    public static final PropertyDefinition KUBERNETES_API_REFRESH_INTERVAL_SECONDS = property(
+            "kubernetes-api-refresh-interval-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-max-staleness-seconds</code></p>
+     * Maximum age in seconds of the endpoints discovered in the background which are still returned while refreshing them
+     * fails. Defaults to <code>300</code>, <code>0</code> means no limit.
+     */
+    public static final PropertyDefinition KUBERNETES_API_MAX_STALENESS_SECONDS = property("kubernetes-api-max-staleness-seconds",
+            INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-snapshot-file</code></p>
+     * Path of a file (e.g. on an <code>emptyDir</code> volume) in which the last discovered endpoints are stored. On start, the
+     * stored endpoints are used to join the cluster while the Kubernetes API is called in the background.
+     */
+    public static final PropertyDefinition KUBERNETES_API_SNAPSHOT_FILE = property("kubernetes-api-snapshot-file", STRING);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-rate-limit</code></p>
+     * Maximum average number of Kubernetes API calls per second made by all the Hazelcast members in the JVM. Calls over the
+     * limit wait until they are allowed. Defaults to <code>0</code>, which means no limit.
+     */
+    public static final PropertyDefinition KUBERNETES_API_RATE_LIMIT = property("kubernetes-api-rate-limit", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-rate-limit-burst</code></p>
+     * Number of Kubernetes API calls which can be made at once, without waiting, after a period with fewer calls than the
+     * rate limit. Defaults to <code>0</code>, which means the rate limit.
+     */
+    public static final PropertyDefinition KUBERNETES_API_RATE_LIMIT_BURST = property("kubernetes-api-rate-limit-burst", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-max-concurrent-requests</code></p>
+     * Maximum number of Kubernetes API calls in progress at the same time made by all the Hazelcast members in the JVM.
+     * Watches are not counted. Defaults to <code>0</code>, which means no limit.
+     */
+    public static final PropertyDefinition KUBERNETES_API_MAX_CONCURRENT_REQUESTS = property(
+            "kubernetes-api-max-concurrent-requests", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-hedge-percentile</code></p>
+     * If set, a Kubernetes API call which has not completed within the given percentile (e.g. <code>95</code>) of the recent
+     * call latencies is sent once more and the result which comes first is used. Defaults to <code>0</code>, which disables
+     * hedging.
+     */
+    public static final PropertyDefinition KUBERNETES_API_HEDGE_PERCENTILE = property("kubernetes-api-hedge-percentile", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-hedge-budget-percent</code></p>
+     * Maximum percentage of the Kubernetes API calls which are sent once more when hedging is enabled, which limits the extra
+     * load on the Kubernetes API. Defaults to <code>5</code>.
+     */
+    public static final PropertyDefinition KUBERNETES_API_HEDGE_BUDGET_PERCENT = property(
+            "kubernetes-api-hedge-budget-percent", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-circuit-breaker-threshold</code></p>
+     * If set, the Kubernetes API is not called after the given number of calls in a row failed, until a single probe call
+     * succeeds after the circuit breaker open time. Discovery then falls back to the last discovered endpoints or to
+     * <code>kubernetes-api-fallback-service-dns</code>. Defaults to <code>0</code>, which disables the circuit breaker.
+     */
+    public static final PropertyDefinition KUBERNETES_API_CIRCUIT_BREAKER_THRESHOLD = property(
+            "kubernetes-api-circuit-breaker-threshold", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-circuit-breaker-open-seconds</code></p>
+     * Time in seconds for which the Kubernetes API is not called after the circuit breaker opened, before a probe call is
+     * made. Defaults to <code>30</code>.
+     */
+    public static final PropertyDefinition KUBERNETES_API_CIRCUIT_BREAKER_OPEN_SECONDS = property(
+            "kubernetes-api-circuit-breaker-open-seconds", INTEGER);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-fallback-service-dns</code></p>
+     * DNS name of a headless service (e.g. <code>hazelcast.default.svc.cluster.local</code>) which is looked up when
+     * discovery with the Kubernetes API fails and there are no previously discovered endpoints.
+     */
+    public static final PropertyDefinition KUBERNETES_API_FALLBACK_SERVICE_DNS = property(
+            "kubernetes-api-fallback-service-dns", STRING);
+
+    /**
+     * <p>Configuration key: <code>kubernetes-api-node-index-ttl-seconds</code></p>
+     * Time in seconds after which the index of the node External IPs, used for the NodePort public addresses, is listed
+     * again, so that the changed ExternalIPs and the removed nodes are picked up. The index is also listed again when an
+     * unknown node is looked up. Defaults to <code>60</code>, <code>0</code> lists the nodes in every discovery.
+     */
+    public static final PropertyDefinition KUBERNETES_API_NODE_INDEX_TTL_SECONDS = property(
+            "kubernetes-api-node-index-ttl-seconds", INTEGER);
+
     /**
      * <p>Configuration key: <code>kubernetes-master</code></p>
      * Defines an alternative address for the kubernetes master. Defaults to: <code>https://kubernetes.default.svc</code>
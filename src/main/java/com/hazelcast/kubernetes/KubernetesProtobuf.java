@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonArray;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.internal.json.JsonValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes Kubernetes API responses in the protobuf wire format ({@code application/vnd.kubernetes.protobuf}) into the same
+ * JSON objects as {@link SelectiveJsonParser} produces for the JSON responses, so that both formats are interpreted by the
+ * same code.
+ * <p>
+ * Only the fields used by the discovery are decoded, all the other fields are skipped without being decoded. Empty strings
+ * are skipped as well, as they are omitted in JSON. The field
+ * numbers come from the {@code generated.proto} files of {@code k8s.io/api/core/v1} and
+ * {@code k8s.io/apimachinery/pkg/apis/meta/v1}, which are stable, as they are a part of the Kubernetes API compatibility
+ * guarantees.
+ *
+ * @see <a href="https://kubernetes.io/docs/reference/using-api/api-concepts/#protobuf-encoding">Protobuf encoding</a>
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class KubernetesProtobuf
+        implements RestClient.BinaryResponseReader<JsonObject> {
+    static final String CONTENT_TYPE = "application/vnd.kubernetes.protobuf";
+
+    /**
+     * Prefix of every protobuf encoded Kubernetes object, followed by the {@code runtime.Unknown} envelope message.
+     */
+    private static final byte[] MAGIC = {'k', '8', 's', 0};
+    private static final int UNKNOWN_RAW = 2;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED32 = 5;
+    private static final int WIRE_TYPE_BITS = 3;
+    private static final int WIRE_TYPE_MASK = 7;
+    private static final int FIXED64_LENGTH = 8;
+    private static final int FIXED32_LENGTH = 4;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7f;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final int MAX_VARINT_SHIFT = 63;
+
+    private static final Message LIST_META = new Message()
+            .string(2, "resourceVersion")
+            .string(3, "continue");
+    private static final Message OBJECT_META = new Message()
+            .string(1, "name")
+            .string(6, "resourceVersion");
+    private static final Message OBJECT_REFERENCE = new Message()
+            .string(1, "kind")
+            .string(2, "namespace")
+            .string(3, "name")
+            .string(4, "uid");
+
+    private static final Message POD = new Message()
+            .message(1, "metadata", OBJECT_META)
+            .message(2, "spec", new Message()
+                    .repeated(2, "containers", new Message()
+                            .repeated(6, "ports", new Message()
+                                    .number(3, "containerPort")))
+                    .string(10, "nodeName"))
+            .message(3, "status", new Message()
+                    .string(6, "podIP")
+                    .repeated(8, "containerStatuses", new Message()
+                            .bool(4, "ready")));
+
+    private static final Message ENDPOINT_ADDRESS = new Message()
+            .string(1, "ip")
+            .message(2, "targetRef", OBJECT_REFERENCE)
+            .string(3, "hostname")
+            .string(4, "nodeName");
+    private static final Message ENDPOINTS = new Message()
+            .message(1, "metadata", OBJECT_META)
+            .repeated(2, "subsets", new Message()
+                    .repeated(1, "addresses", ENDPOINT_ADDRESS)
+                    .repeated(2, "notReadyAddresses", ENDPOINT_ADDRESS)
+                    .repeated(3, "ports", new Message()
+                            .string(1, "name")
+                            .number(2, "port")));
+
+    private static final Message SERVICE = new Message()
+            .message(1, "metadata", OBJECT_META)
+            .message(2, "spec", new Message()
+                    .repeated(1, "ports", new Message()
+                            .string(1, "name")
+                            .number(3, "port")
+                            .number(5, "nodePort")))
+            .message(3, "status", new Message()
+                    .message(1, "loadBalancer", new Message()
+                            .repeated(1, "ingress", new Message()
+                                    .string(1, "ip")
+                                    .string(2, "hostname"))));
+
+    private static final Message NODE = new Message()
+            .message(1, "metadata", OBJECT_META)
+            .message(3, "status", new Message()
+                    .repeated(5, "addresses", new Message()
+                            .string(1, "type")
+                            .string(2, "address")));
+
+    static final KubernetesProtobuf POD_LIST = new KubernetesProtobuf(list(POD));
+    static final KubernetesProtobuf ENDPOINTS_LIST = new KubernetesProtobuf(list(ENDPOINTS));
+    static final KubernetesProtobuf ENDPOINTS_OBJECT = new KubernetesProtobuf(ENDPOINTS);
+    static final KubernetesProtobuf SERVICE_LIST = new KubernetesProtobuf(list(SERVICE));
+    static final KubernetesProtobuf SERVICE_OBJECT = new KubernetesProtobuf(SERVICE);
+    static final KubernetesProtobuf NODE_LIST = new KubernetesProtobuf(list(NODE));
+    static final KubernetesProtobuf NODE_OBJECT = new KubernetesProtobuf(NODE);
+
+    private final Message message;
+
+    private KubernetesProtobuf(Message message) {
+        this.message = message;
+    }
+
+    private static Message list(Message item) {
+        return new Message()
+                .message(1, "metadata", LIST_META)
+                .repeated(2, "items", item);
+    }
+
+    @Override
+    public JsonObject read(InputStream body)
+            throws IOException {
+        return decode(readFully(body));
+    }
+
+    JsonObject decode(byte[] bytes) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes.length <= i || bytes[i] != MAGIC[i]) {
+                throw new KubernetesClientException("Response is not a protobuf encoded Kubernetes object");
+            }
+        }
+        // The runtime.Unknown envelope holds the type, the encoding and the raw object.
+        WireReader reader = new WireReader(bytes, MAGIC.length);
+        while (reader.hasMore(bytes.length)) {
+            int tag = reader.readTag();
+            if (tag >>> WIRE_TYPE_BITS == UNKNOWN_RAW && (tag & WIRE_TYPE_MASK) == WIRE_LENGTH_DELIMITED) {
+                int length = reader.readLength();
+                return reader.readMessage(reader.position() + length, message);
+            }
+            reader.skip(tag & WIRE_TYPE_MASK);
+        }
+        throw new KubernetesClientException("Protobuf encoded Kubernetes object has no content");
+    }
+
+    private static byte[] readFully(InputStream body)
+            throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read = body.read(buffer);
+        while (read != -1) {
+            result.write(buffer, 0, read);
+            read = body.read(buffer);
+        }
+        return result.toByteArray();
+    }
+
+    private enum FieldType {
+        STRING(WIRE_LENGTH_DELIMITED),
+        NUMBER(WIRE_VARINT),
+        BOOL(WIRE_VARINT),
+        MESSAGE(WIRE_LENGTH_DELIMITED);
+
+        private final int wireType;
+
+        FieldType(int wireType) {
+            this.wireType = wireType;
+        }
+    }
+
+    private static final class Field {
+        private final String name;
+        private final FieldType type;
+        private final Message message;
+        private final boolean repeated;
+
+        private Field(String name, FieldType type, Message message, boolean repeated) {
+            this.name = name;
+            this.type = type;
+            this.message = message;
+            this.repeated = repeated;
+        }
+    }
+
+    /**
+     * Decoded fields of a protobuf message, by field number.
+     */
+    private static final class Message {
+        private final Map<Integer, Field> fields = new HashMap<Integer, Field>();
+
+        private Message string(int number, String name) {
+            return add(number, new Field(name, FieldType.STRING, null, false));
+        }
+
+        private Message number(int number, String name) {
+            return add(number, new Field(name, FieldType.NUMBER, null, false));
+        }
+
+        private Message bool(int number, String name) {
+            return add(number, new Field(name, FieldType.BOOL, null, false));
+        }
+
+        private Message message(int number, String name, Message message) {
+            return add(number, new Field(name, FieldType.MESSAGE, message, false));
+        }
+
+        private Message repeated(int number, String name, Message message) {
+            return add(number, new Field(name, FieldType.MESSAGE, message, true));
+        }
+
+        private Message add(int number, Field field) {
+            fields.put(number, field);
+            return this;
+        }
+    }
+
+    /**
+     * Reads the protobuf wire format from a byte array.
+     *
+     * @see <a href="https://developers.google.com/protocol-buffers/docs/encoding">Encoding</a>
+     */
+    private static final class WireReader {
+        private final byte[] bytes;
+        private int position;
+
+        private WireReader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        private int position() {
+            return position;
+        }
+
+        private boolean hasMore(int end) {
+            return position < end;
+        }
+
+        private JsonObject readMessage(int end, Message message) {
+            checkBounds(end);
+            JsonObject result = new JsonObject();
+            while (hasMore(end)) {
+                int tag = readTag();
+                Field field = message.fields.get(tag >>> WIRE_TYPE_BITS);
+                if (field == null || field.type.wireType != (tag & WIRE_TYPE_MASK)) {
+                    skip(tag & WIRE_TYPE_MASK);
+                    continue;
+                }
+                JsonValue value = readValue(field);
+                if (value == null) {
+                    continue;
+                }
+                if (field.repeated) {
+                    JsonValue values = result.get(field.name);
+                    if (values == null) {
+                        values = new JsonArray();
+                        result.add(field.name, values);
+                    }
+                    values.asArray().add(value);
+                } else {
+                    result.set(field.name, value);
+                }
+            }
+            return result;
+        }
+
+        private JsonValue readValue(Field field) {
+            if (field.type == FieldType.NUMBER) {
+                return Json.value(readVarint());
+            } else if (field.type == FieldType.BOOL) {
+                return Json.value(readVarint() != 0);
+            }
+            int length = readLength();
+            if (field.type == FieldType.MESSAGE) {
+                return readMessage(position + length, field.message);
+            }
+            if (length == 0) {
+                // Non-pointer strings are always written, even if empty, while JSON omits them: treat both as absent.
+                return null;
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return Json.value(value);
+        }
+
+        private int readTag() {
+            return (int) readVarint();
+        }
+
+        private int readLength() {
+            long length = readVarint();
+            if (length < 0 || length > bytes.length - position) {
+                throw new KubernetesClientException("Malformed protobuf: invalid length " + length);
+            }
+            return (int) length;
+        }
+
+        private long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += VARINT_PAYLOAD_BITS) {
+                checkBounds(position + 1);
+                byte b = bytes[position++];
+                result |= (long) (b & VARINT_PAYLOAD_MASK) << shift;
+                if ((b & VARINT_CONTINUATION) == 0) {
+                    return result;
+                }
+            }
+            throw new KubernetesClientException("Malformed protobuf: varint too long");
+        }
+
+        private void skip(int wireType) {
+            switch (wireType) {
+                case WIRE_VARINT:
+                    readVarint();
+                    break;
+                case WIRE_FIXED64:
+                    position += FIXED64_LENGTH;
+                    break;
+                case WIRE_LENGTH_DELIMITED:
+                    int length = readLength();
+                    position += length;
+                    break;
+                case WIRE_FIXED32:
+                    position += FIXED32_LENGTH;
+                    break;
+                default:
+                    throw new KubernetesClientException("Malformed protobuf: unsupported wire type " + wireType);
+            }
+            checkBounds(position);
+        }
+
+        private void checkBounds(int end) {
+            if (end > bytes.length) {
+                throw new KubernetesClientException("Malformed protobuf: unexpected end of message");
+            }
+        }
+    }
+}
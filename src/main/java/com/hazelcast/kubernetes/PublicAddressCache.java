@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.kubernetes.KubernetesClient.EndpointAddress;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Public addresses resolved for private addresses, kept across discovery rounds for a limited time.
+ * <p>
+ * LoadBalancer IPs and NodePorts change very rarely, so the Service and Node lookups are only needed for the addresses
+ * which are not in the cache or whose entries have expired.
+ */
+final class PublicAddressCache {
+    private final long ttlNanos;
+    private final ConcurrentMap<EndpointAddress, Entry> entries = new ConcurrentHashMap<EndpointAddress, Entry>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param ttlSeconds how long the public addresses are kept, {@code 0} to disable the cache
+     */
+    PublicAddressCache(int ttlSeconds) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    boolean isEnabled() {
+        return ttlNanos > 0;
+    }
+
+    /**
+     * @return the public address of {@code privateAddress} or {@code null} if it is not cached or expired
+     */
+    EndpointAddress get(EndpointAddress privateAddress) {
+        Entry entry = entries.get(privateAddress);
+        if (entry == null || entry.isExpired(System.nanoTime())) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.publicAddress;
+    }
+
+    void put(EndpointAddress privateAddress, EndpointAddress publicAddress) {
+        if (!isEnabled()) {
+            return;
+        }
+        entries.put(privateAddress, new Entry(publicAddress, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Drops the expired entries, e.g. of the addresses which are gone, so that the cache does not grow with every POD
+     * restart. Called once per discovery round, not per entry, as it goes over the whole cache.
+     */
+    void evictExpired() {
+        long now = System.nanoTime();
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            if (it.next().isExpired(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PublicAddressCache{size=%d, hits=%d, misses=%d}", entries.size(), getHits(), getMisses());
+    }
+
+    private static final class Entry {
+        private final EndpointAddress publicAddress;
+        private final long expiresAtNanos;
+
+        private Entry(EndpointAddress publicAddress, long expiresAtNanos) {
+            this.publicAddress = publicAddress;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
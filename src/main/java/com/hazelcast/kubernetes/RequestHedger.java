@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends a second, "hedged", copy of a call which has not completed within a percentile of the recent call latencies and
+ * takes the result of whichever copy succeeds first, so that a single slow response of the Kubernetes API does not delay
+ * discovery. The slower copy is aborted.
+ * <p>
+ * The latencies and the budget are kept per request kind (the URL path), so that the cheap calls do not set the
+ * percentile for the expensive ones. Every call earns a fraction of a hedge of its kind (the budget), so the hedged calls
+ * never exceed the budget percentage of the calls of a kind. Calls are not hedged until enough latencies of their kind are
+ * known for the percentile to be meaningful.
+ * <p>
+ * The original call runs on the caller thread, only the hedged copies run on a small pool of daemon threads.
+ */
+final class RequestHedger {
+    private static final int LATENCY_SAMPLES = 128;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int MAX_REQUEST_KINDS = 256;
+    private static final int MAX_CONCURRENT_HEDGES = 4;
+    private static final double MAX_HEDGE_TOKENS = 5;
+    private static final double PERCENT = 100;
+
+    private final int percentile;
+    private final double hedgeTokensPerCall;
+    private final ConcurrentMap<String, RequestKind> requestKinds = new ConcurrentHashMap<String, RequestKind>();
+    private final ScheduledExecutorService hedgeTimer;
+    private final ExecutorService hedgeExecutor;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedgedCalls = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * @param percentile    percentile of the recent latencies after which a call is hedged
+     * @param budgetPercent maximum percentage of the calls which are hedged
+     */
+    RequestHedger(int percentile, int budgetPercent) {
+        this.percentile = percentile;
+        this.hedgeTokensPerCall = budgetPercent / PERCENT;
+        this.hedgeTimer = DaemonThreadPools.newScheduledThreadPool("hazelcast-kubernetes-hedge-timer");
+        this.hedgeExecutor = DaemonThreadPools.newBoundedThreadPool("hazelcast-kubernetes-hedge", MAX_CONCURRENT_HEDGES);
+    }
+
+    /**
+     * @return the hedger or {@code null} if hedging is disabled, i.e. {@code percentile} is {@code 0}
+     */
+    static RequestHedger create(int percentile, int budgetPercent) {
+        return percentile > 0 ? new RequestHedger(percentile, budgetPercent) : null;
+    }
+
+    /**
+     * Returns {@code call} made hedged.
+     *
+     * @param url URL called by {@code call}, the calls to the same path share the latencies and the budget
+     */
+    <T> Callable<T> hedged(final String url, final AbortableCall<T> call) {
+        return new Callable<T>() {
+            @Override
+            public T call()
+                    throws Exception {
+                return execute(requestKind(url), call);
+            }
+        };
+    }
+
+    /**
+     * Returns {@code call} as it is, never aborted, for when there is no hedger.
+     */
+    static <T> Callable<T> unhedged(final AbortableCall<T> call) {
+        return new Callable<T>() {
+            @Override
+            public T call()
+                    throws Exception {
+                return call.call(null);
+            }
+        };
+    }
+
+    /**
+     * Stops the threads running the hedged calls.
+     */
+    void shutdown() {
+        hedgeTimer.shutdownNow();
+        hedgeExecutor.shutdownNow();
+    }
+
+    long getCalls() {
+        return calls.get();
+    }
+
+    long getHedgedCalls() {
+        return hedgedCalls.get();
+    }
+
+    /**
+     * @return number of hedged calls which completed before the original call
+     */
+    long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RequestHedger{calls=%d, hedgedCalls=%d, hedgeWins=%d}", getCalls(), getHedgedCalls(),
+                getHedgeWins());
+    }
+
+    /**
+     * @return the statistics of the calls to the path of {@code url} or {@code null} if too many paths are already known
+     */
+    private RequestKind requestKind(String url) {
+        int queryStart = url.indexOf('?');
+        String path = queryStart < 0 ? url : url.substring(0, queryStart);
+        RequestKind requestKind = requestKinds.get(path);
+        if (requestKind == null && requestKinds.size() < MAX_REQUEST_KINDS) {
+            RequestKind newRequestKind = new RequestKind();
+            requestKind = requestKinds.putIfAbsent(path, newRequestKind);
+            if (requestKind == null) {
+                requestKind = newRequestKind;
+            }
+        }
+        return requestKind;
+    }
+
+    private <T> T execute(final RequestKind requestKind, final AbortableCall<T> call)
+            throws Exception {
+        calls.incrementAndGet();
+        long hedgeDelayNanos = requestKind != null ? requestKind.hedgeDelayNanos() : -1;
+        if (hedgeDelayNanos < 0) {
+            long start = System.nanoTime();
+            T result = call.call(null);
+            if (requestKind != null) {
+                requestKind.recordLatency(System.nanoTime() - start);
+            }
+            return result;
+        }
+        final FirstSuccess<T> firstSuccess = new FirstSuccess<T>(requestKind);
+        ScheduledFuture<?> hedge = hedgeTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                hedge(requestKind, call, firstSuccess);
+            }
+        }, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        try {
+            firstSuccess.attempt(call, false).run();
+            return firstSuccess.result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KubernetesClientException("Interrupted while waiting for the Kubernetes API", e);
+        } finally {
+            hedge.cancel(false);
+        }
+    }
+
+    private <T> void hedge(RequestKind requestKind, AbortableCall<T> call, FirstSuccess<T> firstSuccess) {
+        if (firstSuccess.result.isDone() || !requestKind.tryAcquireHedge()) {
+            return;
+        }
+        try {
+            hedgeExecutor.execute(firstSuccess.attempt(call, true));
+            hedgedCalls.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            // all the hedge threads are busy, the original call is awaited
+            firstSuccess.cancelAttempt();
+        }
+    }
+
+    /**
+     * A call which can be aborted from another thread.
+     */
+    interface AbortableCall<T> {
+        /**
+         * @param abortSignal future which completes when the result of the call is no longer needed, {@code null} if the
+         *                    call is never aborted
+         */
+        T call(CompletableFuture<?> abortSignal)
+                throws Exception;
+    }
+
+    /**
+     * Recent latencies and the hedge budget of the calls to one URL path.
+     */
+    private final class RequestKind {
+        // guarded by this
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int nextLatency;
+        private double hedgeTokens;
+
+        /**
+         * Earns the budget of the call and returns after how long it should be hedged.
+         *
+         * @return the percentile of the recent latencies or {@code -1} if not enough latencies are known yet
+         */
+        private synchronized long hedgeDelayNanos() {
+            hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + hedgeTokensPerCall);
+            if (latencyCount < MIN_LATENCY_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / PERCENT * latencyCount) - 1;
+            return sorted[Math.max(0, Math.min(latencyCount - 1, index))];
+        }
+
+        private synchronized boolean tryAcquireHedge() {
+            if (hedgeTokens < 1) {
+                return false;
+            }
+            hedgeTokens -= 1;
+            return true;
+        }
+
+        private synchronized void recordLatency(long nanos) {
+            latencies[nextLatency] = nanos;
+            nextLatency = (nextLatency + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(LATENCY_SAMPLES, latencyCount + 1);
+        }
+    }
+
+    /**
+     * Result of the first copy of a call which succeeds, or the first failure if all of them fail. The result
+     * is the abort signal of all the copies, so the slower copy is aborted as soon as it is known.
+     */
+    private final class FirstSuccess<T> {
+        private final RequestKind requestKind;
+        private final CompletableFuture<T> result = new CompletableFuture<T>();
+        private final AtomicInteger pendingAttempts = new AtomicInteger();
+        private final AtomicBoolean succeeded = new AtomicBoolean();
+        private final AtomicReference<Exception> firstFailure = new AtomicReference<Exception>();
+
+        private FirstSuccess(RequestKind requestKind) {
+            this.requestKind = requestKind;
+        }
+
+        private Runnable attempt(final AbortableCall<T> call, final boolean hedge) {
+            pendingAttempts.incrementAndGet();
+            return new Runnable() {
+                @Override
+                public void run() {
+                    long start = System.nanoTime();
+                    try {
+                        T value = call.call(result);
+                        requestKind.recordLatency(System.nanoTime() - start);
+                        // the win is counted before the caller is woken up by the result
+                        if (succeeded.compareAndSet(false, true)) {
+                            if (hedge) {
+                                hedgeWins.incrementAndGet();
+                            }
+                            result.complete(value);
+                        }
+                    } catch (Exception e) {
+                        failAttempt(e);
+                    }
+                }
+            };
+        }
+
+        /**
+         * Forgets an attempt which was not started.
+         */
+        private void cancelAttempt() {
+            if (pendingAttempts.decrementAndGet() == 0) {
+                // only possible if the other attempt already failed
+                result.completeExceptionally(firstFailure.get());
+            }
+        }
+
+        private void failAttempt(Exception e) {
+            firstFailure.compareAndSet(null, e);
+            if (pendingAttempts.decrementAndGet() == 0) {
+                result.completeExceptionally(firstFailure.get());
+            }
+        }
+    }
+}
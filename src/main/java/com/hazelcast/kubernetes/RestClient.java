@@ -24,10 +24,16 @@ import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManagerFactory;
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.DataOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -35,23 +41,60 @@ import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Utility class for making REST calls.
  */
+@SuppressWarnings("checkstyle:methodcount")
 final class RestClient {
     private static final ILogger LOGGER = Logger.getLogger(RestClient.class);
 
     private static final int HTTP_OK = 200;
+    private static final int MS_IN_SECOND = 1000;
+    private static final int MAX_CACHED_SSL_SOCKET_FACTORIES = 16;
+
+    private static final ResponseReader<String> STRING_READER = new ResponseReader<String>() {
+        @Override
+        public String read(Reader body) {
+            Scanner scanner = new Scanner(body);
+            scanner.useDelimiter("\\Z");
+            return scanner.hasNext() ? scanner.next() : "";
+        }
+    };
+
+    /**
+     * Socket factories shared by all clients in the JVM, keyed by the content of the trusted CA certificate.
+     */
+    private static final ConcurrentMap<String, SSLSocketFactory> SSL_SOCKET_FACTORIES
+            = new ConcurrentHashMap<String, SSLSocketFactory>();
 
     private final String url;
     private final List<Header> headers = new ArrayList<Header>();
     private String body;
     private String caCertificate;
+    private int readTimeoutSeconds;
+    private int timeoutMillis;
+    private AtomicLong receivedBytesCounter;
+    private AtomicLong decodedBytesCounter;
+    private boolean gzip;
+    private ApiRateLimiter rateLimiter;
+    private AtomicLong rateLimiterWaitNanosCounter;
+    private CompletableFuture<?> abortSignal;
 
     private RestClient(String url) {
         this.url = url;
@@ -76,45 +119,173 @@ final class RestClient {
         return this;
     }
 
+    RestClient withReadTimeoutSeconds(int readTimeoutSeconds) {
+        this.readTimeoutSeconds = readTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * Limits both connecting and reading the response (in case of {@link #withReadTimeoutSeconds(int)}, whichever is
+     * shorter) to {@code timeoutMillis}, {@code 0} for no limit.
+     */
+    RestClient withTimeoutMillis(int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    /**
+     * Adds the number of response body bytes received by the call to {@code receivedBytesCounter}.
+     */
+    RestClient withReceivedBytesCounter(AtomicLong receivedBytesCounter) {
+        this.receivedBytesCounter = receivedBytesCounter;
+        return this;
+    }
+
+    /**
+     * Asks the server to compress the response body with gzip, which is then decompressed while it is read.
+     */
+    RestClient withGzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    /**
+     * Adds the number of response body bytes after decompression to {@code decodedBytesCounter}, to be compared with the
+     * bytes received on the wire.
+     */
+    RestClient withDecodedBytesCounter(AtomicLong decodedBytesCounter) {
+        this.decodedBytesCounter = decodedBytesCounter;
+        return this;
+    }
+
+    /**
+     * Waits in {@code rateLimiter} before the call and adds the time spent waiting to {@code waitNanosCounter}, which may
+     * be {@code null}. Calls reading a stream ({@link #getLines()}) only take a token and do not hold a concurrency slot.
+     * <p>
+     * The wait is limited by {@link #withTimeoutMillis(int)}, which is then shortened by the time spent waiting, so that
+     * a call of a discovery round never outlasts its deadline.
+     */
+    RestClient withRateLimiter(ApiRateLimiter rateLimiter, AtomicLong waitNanosCounter) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimiterWaitNanosCounter = waitNanosCounter;
+        return this;
+    }
+
+    /**
+     * Aborts the call, by closing its connection, when {@code abortSignal} completes, e.g. because another copy of the call
+     * already succeeded; {@code null} for a call which is never aborted.
+     */
+    RestClient withAbortSignal(CompletableFuture<?> abortSignal) {
+        this.abortSignal = abortSignal;
+        return this;
+    }
+
     String get() {
-        return call("GET");
+        return call("GET", STRING_READER, null, null);
     }
 
-    String post() {
-        return call("POST");
+    /**
+     * Executes a GET call and passes the response body to {@code responseReader} as it is received, without reading it
+     * into memory first.
+     */
+    <T> T get(ResponseReader<T> responseReader) {
+        return call("GET", responseReader, null, null);
+    }
+
+    /**
+     * Executes a GET call and passes the response body to {@code binaryResponseReader} if the server responded with
+     * {@code binaryContentType} or to {@code responseReader} otherwise.
+     * <p>
+     * Used together with an {@code Accept} header listing both content types, so that the server picks the format.
+     */
+    <T> T get(ResponseReader<T> responseReader, String binaryContentType, BinaryResponseReader<T> binaryResponseReader) {
+        return call("GET", responseReader, binaryContentType, binaryResponseReader);
     }
 
-    private String call(String method) {
+    /**
+     * Executes a GET call and returns the response body as a stream of lines which can be consumed while the server is
+     * still sending, e.g. the newline-delimited events of the Kubernetes watch API.
+     * <p>
+     * The caller is responsible for closing the returned stream. Closing it from another thread interrupts a blocked read.
+     */
+    LineStream getLines() {
+        acquireRateLimiter(false);
         HttpURLConnection connection = null;
-        DataOutputStream outputStream = null;
         try {
-            URL urlToConnect = new URL(url);
-            connection = (HttpURLConnection) urlToConnect.openConnection();
-            if (connection instanceof HttpsURLConnection) {
-                ((HttpsURLConnection) connection).setSSLSocketFactory(buildSslSocketFactory());
+            connection = openConnection("GET");
+            checkHttpOk("GET", connection);
+            return new LineStream(connection, responseStream(connection, connection.getInputStream()));
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.disconnect();
             }
-            connection.setRequestMethod(method);
-            for (Header header : headers) {
-                connection.setRequestProperty(header.getKey(), header.getValue());
+            throw new RestClientException("Failure in executing REST call", e);
+        } catch (RuntimeException e) {
+            if (connection != null) {
+                connection.disconnect();
             }
-            if (body != null) {
-                byte[] bodyData = body.getBytes(StandardCharsets.UTF_8);
+            throw e;
+        }
+    }
 
-                connection.setDoOutput(true);
-                connection.setRequestProperty("charset", "utf-8");
-                connection.setRequestProperty("Content-Length", Integer.toString(bodyData.length));
+    String post() {
+        return call("POST", STRING_READER, null, null);
+    }
 
-                outputStream = new DataOutputStream(connection.getOutputStream());
-                outputStream.write(bodyData);
-                outputStream.flush();
-            }
+    private void acquireRateLimiter(boolean concurrencySlot) {
+        if (rateLimiter == null) {
+            return;
+        }
+        long waitNanos = concurrencySlot ? rateLimiter.acquire(timeoutMillis) : rateLimiter.acquireToken(timeoutMillis);
+        if (rateLimiterWaitNanosCounter != null) {
+            rateLimiterWaitNanosCounter.addAndGet(waitNanos);
+        }
+        if (timeoutMillis > 0) {
+            timeoutMillis = (int) Math.max(1, timeoutMillis - TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+    }
+
+    private void releaseRateLimiter() {
+        if (rateLimiter != null) {
+            rateLimiter.release();
+        }
+    }
+
+    private <T> T call(String method, ResponseReader<T> responseReader, String binaryContentType,
+                       BinaryResponseReader<T> binaryResponseReader) {
+        HttpURLConnection connection = null;
+        DataOutputStream outputStream = null;
+        boolean keepAlive = false;
+        ConnectionAbort abort = null;
+        acquireRateLimiter(true);
+        try {
+            connection = openConnection(method);
+            abort = abortOnSignal(connection);
+            outputStream = writeBody(connection);
 
             checkHttpOk(method, connection);
-            return read(connection.getInputStream());
+            String contentType = connection.getContentType();
+            InputStream stream = responseStream(connection, connection.getInputStream());
+            try {
+                T response = binaryResponseReader != null && contentType != null && contentType.startsWith(binaryContentType)
+                        ? readBinary(stream, binaryResponseReader) : read(stream, responseReader);
+                // The response is fully read, so closing the stream gives the connection back to the JDK keep-alive cache,
+                // unless the call is already being aborted, which closes the connection instead.
+                keepAlive = abort == null || abort.finish();
+                return response;
+            } finally {
+                if (keepAlive) {
+                    IOUtil.closeResource(stream);
+                }
+            }
         } catch (IOException e) {
             throw new RestClientException("Failure in executing REST call", e);
         } finally {
-            if (connection != null) {
+            if (abort != null) {
+                abort.finish();
+            }
+            releaseRateLimiter();
+            if (connection != null && !keepAlive) {
                 connection.disconnect();
             }
             if (outputStream != null) {
@@ -127,29 +298,270 @@ final class RestClient {
         }
     }
 
+    /**
+     * @return the stream the body was written to, to be closed by the caller, or {@code null} if there is no body
+     */
+    private DataOutputStream writeBody(HttpURLConnection connection)
+            throws IOException {
+        if (body == null) {
+            return null;
+        }
+        byte[] bodyData = body.getBytes(StandardCharsets.UTF_8);
+
+        connection.setDoOutput(true);
+        connection.setRequestProperty("charset", "utf-8");
+        connection.setRequestProperty("Content-Length", Integer.toString(bodyData.length));
+
+        DataOutputStream outputStream = new DataOutputStream(connection.getOutputStream());
+        outputStream.write(bodyData);
+        outputStream.flush();
+        return outputStream;
+    }
+
+    private ConnectionAbort abortOnSignal(HttpURLConnection connection) {
+        if (abortSignal == null) {
+            return null;
+        }
+        ConnectionAbort abort = new ConnectionAbort(connection);
+        abortSignal.whenComplete(abort);
+        return abort;
+    }
+
+    private int readTimeoutMillis() {
+        if (readTimeoutSeconds > 0 && timeoutMillis > 0) {
+            return Math.min(readTimeoutSeconds * MS_IN_SECOND, timeoutMillis);
+        }
+        return readTimeoutSeconds > 0 ? readTimeoutSeconds * MS_IN_SECOND : timeoutMillis;
+    }
+
+    private HttpURLConnection openConnection(String method)
+            throws IOException {
+        URL urlToConnect = new URL(url);
+        HttpURLConnection connection = (HttpURLConnection) urlToConnect.openConnection();
+        if (connection instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) connection).setSSLSocketFactory(sslSocketFactory(caCertificate));
+        }
+        if (timeoutMillis > 0) {
+            connection.setConnectTimeout(timeoutMillis);
+        }
+        int readTimeoutMillis = readTimeoutMillis();
+        if (readTimeoutMillis > 0) {
+            connection.setReadTimeout(readTimeoutMillis);
+        }
+        connection.setRequestMethod(method);
+        if (gzip) {
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+        }
+        for (Header header : headers) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        return connection;
+    }
+
     private void checkHttpOk(String method, HttpURLConnection connection)
             throws IOException {
         if (connection.getResponseCode() != HTTP_OK) {
+            long retryAfterMillis = retryAfterMillis(connection.getHeaderField("Retry-After"), System.currentTimeMillis());
             String errorMessage;
+            InputStream errorStream = null;
             try {
-                errorMessage = read(connection.getErrorStream());
+                errorStream = responseStream(connection, connection.getErrorStream());
+                errorMessage = read(errorStream, STRING_READER);
             } catch (Exception e) {
                 throw new RestClientException(
-                        String.format("Failure executing: %s at: %s", method, url), connection.getResponseCode());
+                        String.format("Failure executing: %s at: %s", method, url), connection.getResponseCode(),
+                        retryAfterMillis);
+            } finally {
+                IOUtil.closeResource(errorStream);
             }
             throw new RestClientException(String.format("Failure executing: %s at: %s. Message: %s", method, url, errorMessage),
-                    connection.getResponseCode());
+                    connection.getResponseCode(), retryAfterMillis);
+
+        }
+    }
+
+    /**
+     * Parses the value of the {@code Retry-After} header, which is either a number of seconds or an HTTP date.
+     *
+     * @return milliseconds to wait or {@link RestClientException#NO_RETRY_AFTER} if the header is missing or invalid
+     */
+    static long retryAfterMillis(String retryAfter, long nowMillis) {
+        if (retryAfter == null) {
+            return RestClientException.NO_RETRY_AFTER;
+        }
+        String value = retryAfter.trim();
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            try {
+                long retryAtMillis = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return Math.max(0, retryAtMillis - nowMillis);
+            } catch (DateTimeParseException dateException) {
+                return RestClientException.NO_RETRY_AFTER;
+            }
+        }
+    }
+
+    /**
+     * Wraps the raw response body {@code stream}, counting the received bytes and decompressing the body if needed.
+     */
+    private InputStream responseStream(HttpURLConnection connection, InputStream stream)
+            throws IOException {
+        if (stream == null) {
+            return null;
+        }
+        InputStream result = countingStream(stream, receivedBytesCounter);
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            result = new GZIPInputStream(result);
+        }
+        return countingStream(result, decodedBytesCounter);
+    }
 
+    private static InputStream countingStream(InputStream stream, AtomicLong counter) {
+        if (counter == null) {
+            return stream;
         }
+        return new CountingInputStream(stream, counter);
     }
 
-    private static String read(InputStream stream) {
+    /**
+     * Reads {@code stream} without closing it, which is up to the caller.
+     */
+    private static <T> T read(InputStream stream, ResponseReader<T> responseReader)
+            throws IOException {
         if (stream == null) {
-            return "";
+            return responseReader.read(new StringReader(""));
+        }
+        return responseReader.read(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads {@code stream} without closing it, which is up to the caller.
+     */
+    private static <T> T readBinary(InputStream stream, BinaryResponseReader<T> responseReader)
+            throws IOException {
+        return responseReader.read(stream);
+    }
+
+    /**
+     * Reads the body of a REST response.
+     *
+     * @param <T> type of the read result
+     */
+    interface ResponseReader<T> {
+        T read(Reader body)
+                throws IOException;
+    }
+
+    /**
+     * Reads the binary body of a REST response.
+     *
+     * @param <T> type of the read result
+     */
+    interface BinaryResponseReader<T> {
+        T read(InputStream body)
+                throws IOException;
+    }
+
+    /**
+     * Closes the connection of a call which is still in progress when the abort signal completes.
+     */
+    private static final class ConnectionAbort
+            implements BiConsumer<Object, Throwable> {
+        private final HttpURLConnection connection;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private ConnectionAbort(HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void accept(Object result, Throwable failure) {
+            // a finished call may have given the connection back to the keep-alive cache, it must not be closed
+            if (finished.compareAndSet(false, true)) {
+                connection.disconnect();
+            }
+        }
+
+        /**
+         * Prevents aborting the call from now on.
+         *
+         * @return {@code false} if the call is already being aborted
+         */
+        private boolean finish() {
+            return finished.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Response body of a streamed REST call, read line by line.
+     */
+    static final class LineStream
+            implements Closeable {
+        private final HttpURLConnection connection;
+        private final BufferedReader reader;
+
+        private LineStream(HttpURLConnection connection, InputStream body) {
+            this.connection = connection;
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Blocks until the next line is received.
+         *
+         * @return the next line or {@code null} if the server closed the stream
+         */
+        String readLine() {
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                throw new RestClientException("Failure in reading REST response stream", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            IOUtil.closeResource(reader);
+            connection.disconnect();
+        }
+    }
+
+    private static final class CountingInputStream
+            extends FilterInputStream {
+        private final AtomicLong counter;
+
+        private CountingInputStream(InputStream in, AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read()
+                throws IOException {
+            int result = super.read();
+            if (result != -1) {
+                counter.incrementAndGet();
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+                throws IOException {
+            int result = super.read(b, off, len);
+            if (result > 0) {
+                counter.addAndGet(result);
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long n)
+                throws IOException {
+            long result = super.skip(n);
+            counter.addAndGet(result);
+            return result;
         }
-        Scanner scanner = new Scanner(stream, "UTF-8");
-        scanner.useDelimiter("\\Z");
-        return scanner.next();
     }
 
     private static final class Header {
@@ -170,16 +582,41 @@ final class RestClient {
         }
     }
 
+    /**
+     * Returns the SSL Socket Factory trusting the given CA Certificate, shared by all clients in the JVM.
+     * <p>
+     * The JDK keeps connections alive and reuses them (together with their TLS sessions) only for calls made with the same
+     * socket factory, so sharing it between calls avoids a new TCP connect and TLS handshake per call.
+     * <p>
+     * The factory is built once per distinct certificate content, so a rotated certificate gets a new factory while
+     * unchanged certificates never pay for parsing the PEM and initializing a new {@link SSLContext} again.
+     */
+    static SSLSocketFactory sslSocketFactory(String caCertificate) {
+        SSLSocketFactory sslSocketFactory = SSL_SOCKET_FACTORIES.get(caCertificate);
+        if (sslSocketFactory == null) {
+            if (SSL_SOCKET_FACTORIES.size() >= MAX_CACHED_SSL_SOCKET_FACTORIES) {
+                // only reached after many certificate rotations, drop the outdated factories
+                SSL_SOCKET_FACTORIES.clear();
+            }
+            SSLSocketFactory newSslSocketFactory = buildSslSocketFactory(caCertificate);
+            sslSocketFactory = SSL_SOCKET_FACTORIES.putIfAbsent(caCertificate, newSslSocketFactory);
+            if (sslSocketFactory == null) {
+                sslSocketFactory = newSslSocketFactory;
+            }
+        }
+        return sslSocketFactory;
+    }
+
     /**
      * Builds SSL Socket Factory with the public CA Certificate from Kubernetes Master.
      */
-    private SSLSocketFactory buildSslSocketFactory() {
+    static SSLSocketFactory buildSslSocketFactory(String caCertificate) {
         try {
             KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
             keyStore.load(null, null);
 
             int i = 0;
-            for (Certificate certificate : generateCertificates()) {
+            for (Certificate certificate : generateCertificates(caCertificate)) {
                 String alias = String.format("ca-%d", i++);
                 keyStore.setCertificateEntry(alias, certificate);
             }
@@ -199,7 +636,7 @@ final class RestClient {
     /**
      * Generates CA Certificate from the default CA Cert file or from the externally provided "ca-certificate" property.
      */
-    private Collection<? extends Certificate> generateCertificates()
+    private static Collection<? extends Certificate> generateCertificates(String caCertificate)
             throws IOException, CertificateException {
         InputStream caInput = null;
         try {
@@ -21,13 +21,26 @@ package com.hazelcast.kubernetes;
  */
 class RestClientException
         extends RuntimeException {
+    static final long NO_RETRY_AFTER = -1L;
+
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_REQUEST_TIMEOUT = 408;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_INTERNAL_ERROR = 500;
+
     private int httpErrorCode;
+    private long retryAfterMillis = NO_RETRY_AFTER;
 
     RestClientException(String message, int httpErrorCode) {
         super(String.format("%s. HTTP Error Code: %s", message, httpErrorCode));
         this.httpErrorCode = httpErrorCode;
     }
 
+    RestClientException(String message, int httpErrorCode, long retryAfterMillis) {
+        this(message, httpErrorCode);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
     RestClientException(String message, Throwable cause) {
         super(message, cause);
     }
@@ -35,4 +48,21 @@ class RestClientException
     int getHttpErrorCode() {
         return httpErrorCode;
     }
+
+    /**
+     * @return time to wait before retrying as requested by the server with the {@code Retry-After} header or
+     * {@link #NO_RETRY_AFTER} if the server did not request any
+     */
+    long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Returns whether the call may succeed when repeated: failures without an HTTP response (e.g. a refused connection),
+     * server errors, timeouts and throttling are retryable, while other client errors (e.g. 401 or 403) are not.
+     */
+    boolean isRetryable() {
+        return httpErrorCode < HTTP_BAD_REQUEST || httpErrorCode >= HTTP_INTERNAL_ERROR
+                || httpErrorCode == HTTP_REQUEST_TIMEOUT || httpErrorCode == HTTP_TOO_MANY_REQUESTS;
+    }
 }
@@ -22,6 +22,7 @@ import com.hazelcast.logging.Logger;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Static utility class to retry operations related to connecting to Kubernetes master.
@@ -33,8 +34,6 @@ final class RetryUtils {
 
     private static final ILogger LOGGER = Logger.getLogger(RetryUtils.class);
 
-    private static final long MS_IN_SECOND = 1000L;
-
     private RetryUtils() {
     }
 
@@ -43,27 +42,83 @@ final class RetryUtils {
      * <p>
      * Note that {@code callable} should be an idempotent operation which is a call to the Kubernetes master.
      * <p>
+     * Failed REST calls are retried depending on their HTTP status (see {@link RestClientException#isRetryable()}), other
+     * failures unless their message contains any of {@code nonRetryableKeywords}. The wait before a retry is the one
+     * requested by the server with {@code Retry-After} or otherwise a random part of the exponential backoff, so that the
+     * retries of many members calling at the same time spread out.
+     * <p>
      * If {@code callable} throws an unchecked exception, it is wrapped into {@link HazelcastException}.
      */
     public static <T> T retry(Callable<T> callable, int retries, List<String> nonRetryableKeywords) {
+        return retry(callable, retries, nonRetryableKeywords, new DiscoveryRound());
+    }
+
+    /**
+     * Same as {@link #retry(Callable, int, List)}, but stops retrying when the next attempt would start after the deadline
+     * of {@code round}, in which case the last failure is thrown.
+     */
+    public static <T> T retry(Callable<T> callable, int retries, List<String> nonRetryableKeywords, DiscoveryRound round) {
         int retryCount = 0;
         while (true) {
             try {
                 return callable.call();
             } catch (Exception e) {
                 retryCount++;
-                if (retryCount > retries || containsAnyOf(e, nonRetryableKeywords)) {
+                if (retryCount > retries || !isRetryable(e, nonRetryableKeywords)) {
+                    throw unchecked(e);
+                }
+                long waitIntervalMs = waitIntervalForRetry(e, retryCount);
+                if (round.hasDeadline() && waitIntervalMs >= round.remainingMillis()) {
+                    LOGGER.warning(String.format("Couldn't discover Hazelcast members using Kubernetes API, [%s] not retrying "
+                            + "as the discovery round deadline would be exceeded", retryCount));
                     throw unchecked(e);
                 }
-                long waitIntervalMs = backoffIntervalForRetry(retryCount);
                 LOGGER.warning(
-                        String.format("Couldn't discover Hazelcast members using Kubernetes API, [%s] retrying in %s seconds...",
-                                retryCount, waitIntervalMs / MS_IN_SECOND));
+                        String.format("Couldn't discover Hazelcast members using Kubernetes API, [%s] retrying in %s ms...",
+                                retryCount, waitIntervalMs));
                 sleep(waitIntervalMs);
             }
         }
     }
 
+    static boolean isRetryable(Exception e, List<String> nonRetryableKeywords) {
+        RestClientException restClientException = restClientException(e);
+        if (restClientException != null && restClientException.getHttpErrorCode() != 0) {
+            return restClientException.isRetryable();
+        }
+        return !containsAnyOf(e, nonRetryableKeywords);
+    }
+
+    /**
+     * Returns the time to wait before the {@code retryCount}-th retry after the failure {@code e}: the time requested by
+     * the server (but at most {@link #MAX_BACKOFF_MS}) or {@link #jitteredBackoffIntervalForRetry(int)}.
+     */
+    static long waitIntervalForRetry(Exception e, int retryCount) {
+        RestClientException restClientException = restClientException(e);
+        if (restClientException != null && restClientException.getRetryAfterMillis() != RestClientException.NO_RETRY_AFTER) {
+            return Math.min(restClientException.getRetryAfterMillis(), MAX_BACKOFF_MS);
+        }
+        return jitteredBackoffIntervalForRetry(retryCount);
+    }
+
+    /**
+     * Returns a random interval between {@code 0} and {@link #backoffIntervalForRetry(int)} ("full jitter").
+     */
+    static long jitteredBackoffIntervalForRetry(int retryCount) {
+        return ThreadLocalRandom.current().nextLong(backoffIntervalForRetry(retryCount) + 1);
+    }
+
+    private static RestClientException restClientException(Throwable e) {
+        Throwable currentException = e;
+        while (currentException != null) {
+            if (currentException instanceof RestClientException) {
+                return (RestClientException) currentException;
+            }
+            currentException = currentException.getCause();
+        }
+        return null;
+    }
+
     private static RuntimeException unchecked(Exception e) {
         if (e instanceof RuntimeException) {
             return (RuntimeException) e;
@@ -85,7 +140,7 @@ final class RetryUtils {
         return false;
     }
 
-    private static long backoffIntervalForRetry(int retryCount) {
+    static long backoffIntervalForRetry(int retryCount) {
         long result = INITIAL_BACKOFF_MS;
         for (int i = 1; i < retryCount; i++) {
             result *= BACKOFF_MULTIPLIER;
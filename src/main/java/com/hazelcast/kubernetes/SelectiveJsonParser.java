@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonArray;
+import com.hazelcast.internal.json.JsonHandler;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.internal.json.JsonParser;
+import com.hazelcast.internal.json.JsonValue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses a JSON object straight from a stream, keeping only the selected fields.
+ * <p>
+ * Fields are selected with dot-separated paths in which arrays are transparent, e.g. {@code items.status.podIP} selects
+ * {@code podIP} in the {@code status} of every element of {@code items}. A selected field keeps its whole subtree, objects
+ * on the way to a selected field keep only the selected members, and all other values are skipped while parsing. Array
+ * elements are always kept (possibly as empty objects), so array sizes stay the same as in the original document.
+ * <p>
+ * This way large parts of Kubernetes objects which discovery never reads (e.g. {@code managedFields}, {@code env} or
+ * {@code volumes}) are never materialized, neither as a response {@code String} nor as JSON values.
+ */
+final class SelectiveJsonParser
+        implements RestClient.ResponseReader<JsonObject> {
+    private final Selection root = new Selection();
+
+    SelectiveJsonParser(String... paths) {
+        for (String path : paths) {
+            Selection selection = root;
+            for (String name : path.split("\\.")) {
+                selection = selection.add(name);
+            }
+            selection.selectAll();
+        }
+    }
+
+    @Override
+    public JsonObject read(Reader reader)
+            throws IOException {
+        Handler handler = new Handler(root);
+        new JsonParser(handler).parse(reader);
+        return handler.value.asObject();
+    }
+
+    JsonObject parse(String json) {
+        try {
+            return read(new StringReader(json));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Node of the selected fields tree.
+     */
+    private static final class Selection {
+        private final Map<String, Selection> children = new HashMap<String, Selection>();
+        private boolean all;
+
+        private Selection add(String name) {
+            Selection child = children.get(name);
+            if (child == null) {
+                child = new Selection();
+                children.put(name, child);
+            }
+            return child;
+        }
+
+        private void selectAll() {
+            all = true;
+        }
+
+        /**
+         * @return selection of the member {@code name} or {@code null} if the member is skipped
+         */
+        private Selection member(String name) {
+            return all ? this : children.get(name);
+        }
+    }
+
+    /**
+     * Object or array being parsed, together with its selection. Both are {@code null} for skipped values.
+     */
+    private static final class Container {
+        private final Selection selection;
+        private final JsonValue json;
+
+        private Container(Selection selection, JsonValue json) {
+            this.selection = selection;
+            this.json = json;
+        }
+    }
+
+    private static final class Handler
+            extends JsonHandler<Container, Container> {
+        // selection of the value about to be parsed
+        private Selection next;
+        // last parsed value, null if it was skipped
+        private JsonValue value;
+
+        private Handler(Selection root) {
+            this.next = root;
+        }
+
+        @Override
+        public void endNull() {
+            value = next != null ? Json.NULL : null;
+        }
+
+        @Override
+        public void endBoolean(boolean bool) {
+            value = next != null ? Json.value(bool) : null;
+        }
+
+        @Override
+        public void endString(String string) {
+            value = next != null ? Json.value(string) : null;
+        }
+
+        @Override
+        public void endNumber(String string) {
+            value = next != null ? Json.parse(string) : null;
+        }
+
+        @Override
+        public Container startArray() {
+            return new Container(next, next != null ? new JsonArray() : null);
+        }
+
+        @Override
+        public void endArray(Container array) {
+            value = array.json;
+        }
+
+        @Override
+        public void startArrayValue(Container array) {
+            next = array.selection;
+        }
+
+        @Override
+        public void endArrayValue(Container array) {
+            if (array.json != null) {
+                array.json.asArray().add(value);
+            }
+        }
+
+        @Override
+        public Container startObject() {
+            return new Container(next, next != null ? new JsonObject() : null);
+        }
+
+        @Override
+        public void endObject(Container object) {
+            value = object.json;
+        }
+
+        @Override
+        public void startObjectValue(Container object, String name) {
+            next = object.selection != null ? object.selection.member(name) : null;
+        }
+
+        @Override
+        public void endObjectValue(Container object, String name) {
+            if (object.json != null && value != null) {
+                object.json.asObject().add(name, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.core.HazelcastException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent calls with the same key into a single call.
+ * <p>
+ * The first caller of a key executes the call, the callers arriving while it is in progress wait for it and get the same
+ * result (or the same exception). Results are not kept after the call completes, so a later caller always makes a new
+ * call.
+ *
+ * @param <K> type of the keys identifying equal calls
+ * @param <V> type of the results
+ */
+final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<K, CompletableFuture<V>>();
+
+    /**
+     * Executes {@code callable} unless a call with the same {@code key} is already in progress, in which case waits for its
+     * result instead.
+     * <p>
+     * If {@code callable} throws a checked exception, it is wrapped into {@link HazelcastException}.
+     */
+    V execute(K key, Callable<V> callable) {
+        CompletableFuture<V> call = new CompletableFuture<V>();
+        CompletableFuture<V> existingCall = inFlight.putIfAbsent(key, call);
+        if (existingCall != null) {
+            return join(existingCall);
+        }
+        try {
+            V result = callable.call();
+            call.complete(result);
+            return result;
+        } catch (Exception e) {
+            call.completeExceptionally(e);
+            throw unchecked(e);
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw unchecked(e.getCause());
+        }
+    }
+
+    private static RuntimeException unchecked(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new HazelcastException(e);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.kubernetes.ApiCircuitBreaker.State;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ApiCircuitBreakerTest {
+    private static final String RESULT = "result";
+
+    @Test
+    public void disabled() {
+        // when
+        ApiCircuitBreaker breaker = ApiCircuitBreaker.create(0, 30);
+
+        // then
+        assertNull(breaker);
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures()
+            throws Exception {
+        // given
+        ApiCircuitBreaker breaker = new ApiCircuitBreaker(2, 60);
+        CountingCall call = new CountingCall(500);
+        callIgnoringFailure(breaker.guarded(call));
+        callIgnoringFailure(breaker.guarded(call));
+
+        // when
+        KubernetesClientException exception = null;
+        try {
+            breaker.guarded(call).call();
+        } catch (KubernetesClientException e) {
+            exception = e;
+        }
+
+        // then
+        assertEquals(ApiCircuitBreaker.OPEN_MESSAGE, exception.getMessage());
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(2, call.calls.get());
+        assertEquals(1, breaker.getOpenings());
+        assertEquals(1, breaker.getRejectedCalls());
+    }
+
+    @Test
+    public void doesNotOpenOnClientErrors()
+            throws Exception {
+        // given
+        ApiCircuitBreaker breaker = new ApiCircuitBreaker(2, 60);
+        CountingCall call = new CountingCall(403);
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            callIgnoringFailure(breaker.guarded(call));
+        }
+
+        // then
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(3, call.calls.get());
+    }
+
+    @Test
+    public void doesNotOpenOnCallsNotMade()
+            throws Exception {
+        // given
+        ApiCircuitBreaker breaker = new ApiCircuitBreaker(1, 60);
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            callIgnoringFailure(breaker.guarded(new RejectedCall()));
+        }
+
+        // then
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getOpenings());
+    }
+
+    @Test
+    public void probesAgainWhenProbeNotMade()
+            throws Exception {
+        // given
+        ApiCircuitBreaker breaker = new ApiCircuitBreaker(1, 0);
+        callIgnoringFailure(breaker.guarded(new CountingCall(500)));
+        callIgnoringFailure(breaker.guarded(new RejectedCall()));
+
+        // when
+        CountingCall call = new CountingCall(0);
+        callIgnoringFailure(breaker.guarded(call));
+
+        // then
+        assertEquals(1, call.calls.get());
+        assertEquals(0, breaker.getRejectedCalls());
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void closesWhenProbeSucceeds()
+            throws Exception {
+        // given
+        ApiCircuitBreaker breaker = new ApiCircuitBreaker(1, 0);
+        callIgnoringFailure(breaker.guarded(new CountingCall(500)));
+
+        // when
+        String result = breaker.guarded(new CountingCall(0)).call();
+
+        // then
+        assertEquals(RESULT, result);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void reopensWhenProbeFails()
+            throws Exception {
+        // given
+        ApiCircuitBreaker breaker = new ApiCircuitBreaker(1, 0);
+        CountingCall call = new CountingCall(503);
+        callIgnoringFailure(breaker.guarded(call));
+
+        // when
+        callIgnoringFailure(breaker.guarded(call));
+
+        // then
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenings());
+    }
+
+    @Test
+    public void singleProbeWhenHalfOpen()
+            throws Exception {
+        // given
+        final ApiCircuitBreaker breaker = new ApiCircuitBreaker(1, 0);
+        callIgnoringFailure(breaker.guarded(new CountingCall(500)));
+        final CountDownLatch probeStarted = new CountDownLatch(1);
+        final CountDownLatch apiResponded = new CountDownLatch(1);
+        Thread probe = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                callIgnoringFailure(breaker.guarded(new Callable<String>() {
+                    @Override
+                    public String call()
+                            throws InterruptedException {
+                        probeStarted.countDown();
+                        apiResponded.await();
+                        return RESULT;
+                    }
+                }));
+            }
+        });
+        probe.start();
+        assertTrue(probeStarted.await(5, TimeUnit.SECONDS));
+
+        // when
+        CountingCall call = new CountingCall(0);
+        callIgnoringFailure(breaker.guarded(call));
+        apiResponded.countDown();
+        probe.join();
+
+        // then
+        assertEquals(0, call.calls.get());
+        assertEquals(1, breaker.getRejectedCalls());
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    private static void callIgnoringFailure(Callable<String> call) {
+        try {
+            call.call();
+        } catch (RuntimeException e) {
+            // expected
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
+    /**
+     * Call which fails with the given HTTP status, or succeeds if it is {@code 0}.
+     */
+    private static final class CountingCall
+            implements Callable<String> {
+        private final int status;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private CountingCall(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public String call() {
+            calls.incrementAndGet();
+            if (status != 0) {
+                throw new RestClientException("Failure", status);
+            }
+            return RESULT;
+        }
+    }
+
+    /**
+     * Call which is not made, e.g. because the discovery round deadline passed.
+     */
+    private static final class RejectedCall
+            implements Callable<String> {
+        @Override
+        public String call() {
+            throw new ApiCallRejectedException(DiscoveryRound.DEADLINE_MESSAGE);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ApiRateLimiterTest {
+
+    @Test
+    public void burstWithoutWaiting() {
+        // given
+        ApiRateLimiter limiter = new ApiRateLimiter(1, 3, 0);
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(0);
+            limiter.release();
+        }
+
+        // then
+        assertEquals(3, limiter.getAcquired());
+        assertEquals(0, limiter.getWaited());
+    }
+
+    @Test
+    public void waitsWhenRateExceeded() {
+        // given
+        ApiRateLimiter limiter = new ApiRateLimiter(10, 1, 0);
+        limiter.acquire(0);
+        limiter.release();
+
+        // when
+        long waitNanos = limiter.acquire(0);
+        limiter.release();
+
+        // then
+        assertTrue(waitNanos >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, limiter.getWaited());
+        assertTrue(limiter.getWaitMillis() >= 50);
+    }
+
+    @Test
+    public void waitsForFreeConcurrencySlot()
+            throws Exception {
+        // given
+        final ApiRateLimiter limiter = new ApiRateLimiter(0, 0, 1);
+        limiter.acquire(0);
+        final AtomicBoolean acquired = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                limiter.acquire(0);
+                acquired.set(true);
+                limiter.release();
+                done.countDown();
+            }
+        }).start();
+
+        // when
+        Thread.sleep(100);
+        boolean acquiredBeforeRelease = acquired.get();
+        limiter.release();
+
+        // then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(acquiredBeforeRelease);
+        assertTrue(acquired.get());
+    }
+
+    @Test
+    public void failsWhenTokenNotAvailableInTime() {
+        // given
+        ApiRateLimiter limiter = new ApiRateLimiter(1, 1, 0);
+        limiter.acquire(0);
+        limiter.release();
+
+        // when
+        ApiCallRejectedException exception = null;
+        try {
+            limiter.acquire(100);
+        } catch (ApiCallRejectedException e) {
+            exception = e;
+        }
+
+        // then
+        assertEquals(DiscoveryRound.DEADLINE_MESSAGE, exception.getMessage());
+        assertEquals(1, limiter.getAcquired());
+    }
+
+    @Test
+    public void failsWhenConcurrencySlotNotFreeInTime() {
+        // given
+        ApiRateLimiter limiter = new ApiRateLimiter(0, 0, 1);
+        limiter.acquire(0);
+
+        // when
+        ApiCallRejectedException exception = null;
+        try {
+            limiter.acquire(100);
+        } catch (ApiCallRejectedException e) {
+            exception = e;
+        }
+
+        // then
+        assertEquals(DiscoveryRound.DEADLINE_MESSAGE, exception.getMessage());
+        assertEquals(1, limiter.getAcquired());
+    }
+
+    @Test
+    public void sharedPerMasterAndLimits() {
+        // when
+        ApiRateLimiter limiter1 = ApiRateLimiter.shared("https://kubernetes.default.svc", 10, 0, 4);
+        ApiRateLimiter limiter2 = ApiRateLimiter.shared("https://kubernetes.default.svc", 10, 0, 4);
+        ApiRateLimiter otherMasterLimiter = ApiRateLimiter.shared("https://other:6443", 10, 0, 4);
+        ApiRateLimiter noLimiter = ApiRateLimiter.shared("https://kubernetes.default.svc", 0, 0, 0);
+
+        // then
+        assertSame(limiter1, limiter2);
+        assertNotSame(limiter1, otherMasterLimiter);
+        assertNull(noLimiter);
+    }
+}
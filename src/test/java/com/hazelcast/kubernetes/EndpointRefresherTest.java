@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.kubernetes.KubernetesClient.EndpointAddress;
+import com.hazelcast.test.AssertTask;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.test.HazelcastTestSupport.assertTrueEventually;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EndpointRefresherTest {
+    private static final List<Endpoint> ENDPOINTS = asList(new Endpoint(new EndpointAddress("192.168.0.25", 5701), true));
+
+    private EndpointRefresher refresher;
+
+    @After
+    public void tearDown() {
+        if (refresher != null) {
+            refresher.stop();
+        }
+    }
+
+    @Test
+    public void noEndpointsBeforeFirstDiscovery() {
+        // given
+        refresher = new EndpointRefresher(discovery(new AtomicInteger()), 60, 0);
+
+        // when
+        List<Endpoint> result = refresher.endpoints();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void refreshInBackground() {
+        // given
+        final AtomicInteger calls = new AtomicInteger();
+        refresher = new EndpointRefresher(discovery(calls), 60, 0);
+
+        // when
+        refresher.start();
+
+        // then
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertSame(ENDPOINTS, refresher.endpoints());
+            }
+        });
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void lastKnownEndpointsWhenRefreshFails() {
+        // given
+        final AtomicInteger calls = new AtomicInteger();
+        refresher = new EndpointRefresher(new Callable<List<Endpoint>>() {
+            @Override
+            public List<Endpoint> call() {
+                if (calls.incrementAndGet() > 1) {
+                    throw new RestClientException("Service Unavailable", 503);
+                }
+                return ENDPOINTS;
+            }
+        }, 1, 0);
+
+        // when
+        refresher.start();
+
+        // then
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertTrue(calls.get() > 2);
+            }
+        });
+        assertSame(ENDPOINTS, refresher.endpoints());
+    }
+
+    @Test
+    public void noEndpointsWhenStale()
+            throws InterruptedException {
+        // given
+        refresher = new EndpointRefresher(discovery(new AtomicInteger()), 60, 1);
+        refresher.update(ENDPOINTS);
+
+        // when
+        Thread.sleep(1100);
+        List<Endpoint> result = refresher.endpoints();
+
+        // then
+        assertNull(result);
+    }
+
+    private static Callable<List<Endpoint>> discovery(final AtomicInteger calls) {
+        return new Callable<List<Endpoint>>() {
+            @Override
+            public List<Endpoint> call() {
+                calls.incrementAndGet();
+                return ENDPOINTS;
+            }
+        };
+    }
+}
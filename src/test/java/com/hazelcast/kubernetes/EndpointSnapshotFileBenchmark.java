@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.kubernetes.KubernetesClient.EndpointAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading the endpoint snapshot stored by {@link EndpointSnapshotFile}, which is done on the member start.
+ * <p>
+ * Run with the {@link #main(String[])} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndpointSnapshotFileBenchmark {
+    @Param({"100", "1000"})
+    private int endpoints;
+
+    private File file;
+    private EndpointSnapshotFile snapshotFile;
+
+    @Setup
+    public void setUp()
+            throws IOException {
+        file = File.createTempFile("endpoints", ".snapshot");
+        snapshotFile = new EndpointSnapshotFile(file.getPath());
+        List<Endpoint> snapshot = new ArrayList<Endpoint>();
+        for (int i = 0; i < endpoints; i++) {
+            snapshot.add(new Endpoint(new EndpointAddress(String.format("10.0.%d.%d", i / 256, i % 256), 5701),
+                    new EndpointAddress(String.format("35.232.%d.%d", i / 256, i % 256), 31916), true,
+                    Collections.singletonMap("hazelcast.partition.group.zone", "us-central1-a")));
+        }
+        snapshotFile.store(snapshot);
+        System.out.printf("%n%d endpoints: %d bytes%n", endpoints, file.length());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public List<Endpoint> load() {
+        return snapshotFile.load();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException {
+        new Runner(new OptionsBuilder().include(EndpointSnapshotFileBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.kubernetes.KubernetesClient.EndpointAddress;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EndpointSnapshotFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storeAndLoad()
+            throws IOException {
+        // given
+        EndpointSnapshotFile snapshotFile = new EndpointSnapshotFile(new File(folder.getRoot(), "endpoints").getPath());
+        List<Endpoint> endpoints = asList(
+                new Endpoint(new EndpointAddress("192.168.0.25", 5701), new EndpointAddress("35.232.226.200", 31916), true,
+                        singletonMap("hazelcast.partition.group.zone", "us-central1-a")),
+                new Endpoint(new EndpointAddress("172.17.0.5", null), false));
+
+        // when
+        snapshotFile.store(endpoints);
+        List<Endpoint> result = snapshotFile.load();
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(new EndpointAddress("192.168.0.25", 5701), result.get(0).getPrivateAddress());
+        assertEquals(new EndpointAddress("35.232.226.200", 31916), result.get(0).getPublicAddress());
+        assertTrue(result.get(0).isReady());
+        assertEquals(singletonMap("hazelcast.partition.group.zone", "us-central1-a"), result.get(0).getAdditionalProperties());
+        assertEquals(new EndpointAddress("172.17.0.5", null), result.get(1).getPrivateAddress());
+        assertNull(result.get(1).getPublicAddress());
+        assertFalse(result.get(1).isReady());
+        assertTrue(result.get(1).getAdditionalProperties().isEmpty());
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void storeReplacesPreviousSnapshot() {
+        // given
+        EndpointSnapshotFile snapshotFile = new EndpointSnapshotFile(new File(folder.getRoot(), "endpoints").getPath());
+        snapshotFile.store(asList(new Endpoint(new EndpointAddress("192.168.0.25", 5701), true)));
+
+        // when
+        snapshotFile.store(asList(new Endpoint(new EndpointAddress("172.17.0.5", 5701), true)));
+        List<Endpoint> result = snapshotFile.load();
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals(new EndpointAddress("172.17.0.5", 5701), result.get(0).getPrivateAddress());
+    }
+
+    @Test
+    public void storeSkipsWritingUnchangedSnapshot()
+            throws IOException {
+        // given
+        File file = new File(folder.getRoot(), "endpoints");
+        EndpointSnapshotFile snapshotFile = new EndpointSnapshotFile(file.getPath());
+        snapshotFile.store(asList(new Endpoint(new EndpointAddress("192.168.0.25", 5701), true)));
+        Object fileKey = Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+        assertTrue(file.setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+
+        // when
+        snapshotFile.store(asList(new Endpoint(new EndpointAddress("192.168.0.25", 5701), true)));
+
+        // then
+        assertEquals(fileKey, Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey());
+        assertTrue(snapshotFile.ageMillis() < TimeUnit.MINUTES.toMillis(1));
+        assertEquals(1, snapshotFile.load().size());
+    }
+
+    @Test
+    public void loadWithoutSnapshot() {
+        // given
+        EndpointSnapshotFile snapshotFile = new EndpointSnapshotFile(new File(folder.getRoot(), "endpoints").getPath());
+
+        // when
+        List<Endpoint> result = snapshotFile.load();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void loadCorruptedSnapshot()
+            throws IOException {
+        // given
+        File file = folder.newFile("endpoints");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("{\"endpoints\":[]}".getBytes());
+        out.close();
+
+        // when
+        List<Endpoint> result = new EndpointSnapshotFile(file.getPath()).load();
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void loadSnapshotWithCorruptedCount()
+            throws IOException {
+        // given
+        File file = folder.newFile("endpoints");
+        EndpointSnapshotFile snapshotFile = new EndpointSnapshotFile(file.getPath());
+        snapshotFile.store(asList(new Endpoint(new EndpointAddress("192.168.0.25", 5701), true)));
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        out.seek(4);
+
+        // when
+        out.writeInt(-1);
+        List<Endpoint> negativeCountResult = snapshotFile.load();
+        out.seek(4);
+        out.writeInt(Integer.MAX_VALUE);
+        out.close();
+        List<Endpoint> hugeCountResult = snapshotFile.load();
+
+        // then
+        assertNull(negativeCountResult);
+        assertNull(hugeCountResult);
+    }
+}
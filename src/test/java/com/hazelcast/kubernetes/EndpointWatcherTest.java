@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.test.AssertTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static com.hazelcast.test.HazelcastTestSupport.assertTrueEventually;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class EndpointWatcherTest {
+    private static final String TOKEN = "sample-token";
+    private static final String CA_CERTIFICATE = "sample-ca-certificate";
+    private static final String NAMESPACE = "sample-namespace";
+    private static final String ENDPOINTS_PATH = String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    private KubernetesClient client;
+    private EndpointWatcher watcher;
+
+    @Before
+    public void setUp() {
+        stubFor(get(urlMatching("/api/.*")).atPriority(5)
+                .willReturn(aResponse().withStatus(401).withBody("\"reason\":\"Unauthorized\"")));
+        String kubernetesMasterUrl = String.format("http://localhost:%d", wireMockRule.port());
+        client = new KubernetesClient(NAMESPACE, kubernetesMasterUrl, TOKEN, CA_CERTIFICATE, 0, false);
+        watcher = new EndpointWatcher(client, DiscoveryResource.endpointsByName("hazelcast"));
+    }
+
+    @After
+    public void tearDown() {
+        watcher.stop();
+    }
+
+    @Test
+    public void listThenApplyWatchEvents() {
+        // given
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("fieldSelector", equalTo("metadata.name=hazelcast"))
+                .withQueryParam("watch", absent())
+                .willReturn(aResponse().withStatus(200).withBody(endpointsList("1", "192.168.0.25"))));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))
+                .withQueryParam("resourceVersion", equalTo("1"))
+                .willReturn(aResponse().withStatus(200).withBody(
+                        event("MODIFIED", endpoints("2", "192.168.0.25", "192.168.0.26")) + "\n"
+                                + event("BOOKMARK", "{\"metadata\":{\"resourceVersion\":\"3\"}}") + "\n")));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))
+                .withQueryParam("resourceVersion", equalTo("3"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(100).withBody("")));
+
+        // when
+        watcher.start();
+
+        // then
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertThat(ips(watcher.endpoints()), containsInAnyOrder("192.168.0.25", "192.168.0.26"));
+            }
+        });
+    }
+
+    @Test
+    public void publicAddressesLookedUpOnlyWhenEndpointsRequested() {
+        // given
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("fieldSelector", equalTo("metadata.name=hazelcast"))
+                .withQueryParam("watch", absent())
+                .willReturn(aResponse().withStatus(200).withBody(endpointsList("1", "192.168.0.25"))));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))
+                .withQueryParam("resourceVersion", equalTo("1"))
+                .willReturn(aResponse().withStatus(200).withBody(
+                        event("MODIFIED", endpoints("2", "192.168.0.25", "192.168.0.26")) + "\n"
+                                + event("MODIFIED", endpoints("3", "192.168.0.25", "192.168.0.26", "192.168.0.27")) + "\n")));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))
+                .withQueryParam("resourceVersion", equalTo("3"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(100).withBody("")));
+        watcher.start();
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                verify(getRequestedFor(urlPathEqualTo(ENDPOINTS_PATH)).withQueryParam("resourceVersion", equalTo("3")));
+            }
+        });
+
+        // when
+        int lookupsBeforeRequest = otherEndpointsLookups();
+        List<Endpoint> endpoints1 = watcher.endpoints();
+        List<Endpoint> endpoints2 = watcher.endpoints();
+
+        // then
+        assertEquals(0, lookupsBeforeRequest);
+        assertEquals(1, otherEndpointsLookups());
+        assertThat(ips(endpoints1), containsInAnyOrder("192.168.0.25", "192.168.0.26", "192.168.0.27"));
+        assertSame(endpoints1, endpoints2);
+    }
+
+    @Test
+    public void relistWhenWatchExpired() {
+        // given
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", absent())
+                .willReturn(aResponse().withStatus(200).withBody(endpointsList("5", "192.168.0.27"))));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(100)
+                        .withBody(event("ERROR", "{\"kind\":\"Status\",\"code\":410,\"reason\":\"Expired\"}") + "\n")));
+
+        // when
+        watcher.start();
+
+        // then
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertThat(ips(watcher.endpoints()), containsInAnyOrder("192.168.0.27"));
+            }
+        });
+    }
+
+    @Test
+    public void backOffWhenWatchEndsWithoutEvents()
+            throws InterruptedException {
+        // given
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", absent())
+                .willReturn(aResponse().withStatus(200).withBody(endpointsList("1", "192.168.0.25"))));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))
+                .willReturn(aResponse().withStatus(200).withBody("")));
+        watcher.start();
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                verify(getRequestedFor(urlPathEqualTo(ENDPOINTS_PATH)).withQueryParam("watch", equalTo("true")));
+            }
+        });
+
+        // when
+        Thread.sleep(500);
+
+        // then
+        assertEquals(1, findAll(getRequestedFor(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))).size());
+        assertThat(ips(watcher.endpoints()), containsInAnyOrder("192.168.0.25"));
+    }
+
+    @Test
+    public void relistRightAwayWhenWatchExpiredWithoutEvents() {
+        // given
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .inScenario("expiry").whenScenarioStateIs(STARTED).willSetStateTo("listed")
+                .withQueryParam("watch", absent())
+                .willReturn(aResponse().withStatus(200).withBody(endpointsList("5", "192.168.0.27"))));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .inScenario("expiry").whenScenarioStateIs("listed")
+                .withQueryParam("watch", absent())
+                .willReturn(aResponse().withStatus(200).withBody(endpointsList("6", "192.168.0.28"))));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))
+                .withQueryParam("resourceVersion", equalTo("5"))
+                .willReturn(aResponse().withStatus(200)
+                        .withBody(event("ERROR", "{\"kind\":\"Status\",\"code\":410,\"reason\":\"Expired\"}") + "\n")));
+        stubFor(get(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("watch", equalTo("true"))
+                .withQueryParam("resourceVersion", equalTo("6"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(5000).withBody("")));
+
+        // when
+        watcher.start();
+
+        // then
+        // faster than the backoff of a watch which ended without events
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertThat(ips(watcher.endpoints()), containsInAnyOrder("192.168.0.28"));
+            }
+        }, 1);
+    }
+
+    @Test
+    public void watchEndpointSlices() {
+        // given
+        String slicesPath = String.format("/apis/discovery.k8s.io/v1/namespaces/%s/endpointslices", NAMESPACE);
+        stubFor(get(urlMatching("/apis/.*")).atPriority(5)
+                .willReturn(aResponse().withStatus(401).withBody("\"reason\":\"Unauthorized\"")));
+        stubFor(get(urlPathEqualTo(slicesPath))
+                .withQueryParam("labelSelector", equalTo("kubernetes.io/service-name=hazelcast"))
+                .withQueryParam("watch", absent())
+                .willReturn(aResponse().withStatus(200).withBody(String.format(
+                        "{\"kind\":\"EndpointSliceList\",\"metadata\":{\"resourceVersion\":\"1\"},\"items\":[%s,%s]}",
+                        endpointSlice("hazelcast-a", "1", "192.168.0.25"), endpointSlice("hazelcast-b", "1", "192.168.0.26")))));
+        stubFor(get(urlPathEqualTo(slicesPath))
+                .withQueryParam("watch", equalTo("true"))
+                .withQueryParam("resourceVersion", equalTo("1"))
+                .willReturn(aResponse().withStatus(200).withBody(
+                        event("MODIFIED", endpointSlice("hazelcast-b", "2", "192.168.0.27")) + "\n")));
+        stubFor(get(urlPathEqualTo(slicesPath))
+                .withQueryParam("watch", equalTo("true"))
+                .withQueryParam("resourceVersion", equalTo("2"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(100).withBody("")));
+        watcher = new EndpointWatcher(client, DiscoveryResource.endpointSlicesByServiceName("hazelcast"));
+
+        // when
+        watcher.start();
+
+        // then
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertThat(ips(watcher.endpoints()), containsInAnyOrder("192.168.0.25", "192.168.0.27"));
+            }
+        });
+    }
+
+    @Test
+    public void notInSyncWhenListFails() {
+        // given
+        // all API calls are unauthorized
+
+        // when
+        watcher.start();
+
+        // then
+        assertNull(watcher.endpoints());
+    }
+
+    private static int otherEndpointsLookups() {
+        return findAll(getRequestedFor(urlPathEqualTo(ENDPOINTS_PATH))
+                .withQueryParam("fieldSelector", equalTo("metadata.name!=hazelcast"))).size();
+    }
+
+    private static String endpointsList(String resourceVersion, String ip) {
+        return String.format("{\"kind\":\"EndpointsList\",\"metadata\":{\"resourceVersion\":\"%s\"},\"items\":[%s]}",
+                resourceVersion, endpoints(resourceVersion, ip));
+    }
+
+    private static String endpoints(String resourceVersion, String... ips) {
+        StringBuilder addresses = new StringBuilder();
+        for (String ip : ips) {
+            if (addresses.length() > 0) {
+                addresses.append(',');
+            }
+            addresses.append(String.format("{\"ip\":\"%s\"}", ip));
+        }
+        return String.format("{\"metadata\":{\"name\":\"hazelcast\",\"resourceVersion\":\"%s\"},"
+                + "\"subsets\":[{\"addresses\":[%s],\"ports\":[{\"port\":5701}]}]}", resourceVersion, addresses);
+    }
+
+    private static String endpointSlice(String name, String resourceVersion, String ip) {
+        return String.format("{\"metadata\":{\"name\":\"%s\",\"resourceVersion\":\"%s\","
+                        + "\"labels\":{\"kubernetes.io/service-name\":\"hazelcast\"}},\"addressType\":\"IPv4\","
+                        + "\"endpoints\":[{\"addresses\":[\"%s\"],\"conditions\":{\"ready\":true}}],\"ports\":[{\"port\":5701}]}",
+                name, resourceVersion, ip);
+    }
+
+    private static String event(String type, String object) {
+        return String.format("{\"type\":\"%s\",\"object\":%s}", type, object);
+    }
+
+    private static List<String> ips(List<Endpoint> endpoints) {
+        List<String> result = new ArrayList<String>();
+        if (endpoints != null) {
+            for (Endpoint endpoint : endpoints) {
+                result.add(endpoint.getPrivateAddress().getIp());
+            }
+        }
+        return result;
+    }
+}
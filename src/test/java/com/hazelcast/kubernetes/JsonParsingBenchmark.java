@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a realistic pods list the way {@link KubernetesClient} used to (read the whole response into a
+ * {@code String}, then build the full JSON tree) with {@link SelectiveJsonParser} streaming it straight from the response.
+ * <p>
+ * Use the GC profiler ({@code -prof gc}) to see the difference in allocation per call.
+ * <p>
+ * Run with the {@link #main(String[])} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonParsingBenchmark {
+    private static final SelectiveJsonParser PODS_LIST_PARSER = new SelectiveJsonParser("metadata.resourceVersion",
+            "items.metadata.name", "items.metadata.resourceVersion", "items.status.podIP",
+            "items.status.containerStatuses.ready", "items.spec.containers.ports.containerPort");
+
+    @Param({"100", "1000"})
+    private int pods;
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        response = podsList(pods).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JsonObject fullParsing() {
+        Scanner scanner = new Scanner(reader());
+        scanner.useDelimiter("\\Z");
+        return Json.parse(scanner.next()).asObject();
+    }
+
+    @Benchmark
+    public JsonObject selectiveStreamingParsing()
+            throws IOException {
+        return PODS_LIST_PARSER.read(reader());
+    }
+
+    public static void main(String[] args)
+            throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonParsingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(response), StandardCharsets.UTF_8);
+    }
+
+    static String podsList(int size) {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                items.append(',');
+            }
+            items.append(pod(i));
+        }
+        return String.format("{\"kind\":\"PodList\",\"apiVersion\":\"v1\",\"metadata\":{\"resourceVersion\":\"4242\"},"
+                + "\"items\":[%s]}", items);
+    }
+
+    private static String pod(int i) {
+        String managedField = "{\"manager\":\"kubelet\",\"operation\":\"Update\",\"apiVersion\":\"v1\","
+                + "\"time\":\"2020-10-01T10:00:00Z\",\"fieldsType\":\"FieldsV1\",\"fieldsV1\":{\"f:status\":{"
+                + "\"f:conditions\":{\"k:{\\\"type\\\":\\\"Ready\\\"}\":{\".\":{},\"f:lastProbeTime\":{},\"f:status\":{}}},"
+                + "\"f:containerStatuses\":{},\"f:podIP\":{},\"f:podIPs\":{\".\":{}}}}}";
+        String env = "{\"name\":\"JAVA_OPTS\",\"value\":\"-Dhazelcast.config=/data/hazelcast/hazelcast.yaml -Xmx1g\"},"
+                + "{\"name\":\"POD_NAME\",\"valueFrom\":{\"fieldRef\":{\"apiVersion\":\"v1\",\"fieldPath\":\"metadata.name\"}}}";
+        String volumes = "{\"name\":\"hazelcast-storage\",\"configMap\":{\"name\":\"hazelcast-configuration\",\"defaultMode\":420}},"
+                + "{\"name\":\"default-token\",\"secret\":{\"secretName\":\"default-token-x8k2p\",\"defaultMode\":420}}";
+        return String.format("{\"metadata\":{\"name\":\"hazelcast-%1$d\",\"namespace\":\"default\","
+                        + "\"uid\":\"8f2a4b6c-%1$08d\",\"resourceVersion\":\"%1$d\",\"labels\":{\"app\":\"hazelcast\","
+                        + "\"statefulset.kubernetes.io/pod-name\":\"hazelcast-%1$d\"},\"managedFields\":[%2$s,%2$s]},"
+                        + "\"spec\":{\"volumes\":[%3$s],\"containers\":[{\"name\":\"hazelcast\","
+                        + "\"image\":\"hazelcast/hazelcast:4.2.2\",\"ports\":[{\"name\":\"hazelcast\",\"containerPort\":5701,"
+                        + "\"protocol\":\"TCP\"}],\"env\":[%4$s],\"resources\":{\"limits\":{\"cpu\":\"1\",\"memory\":\"2Gi\"}},"
+                        + "\"livenessProbe\":{\"httpGet\":{\"path\":\"/hazelcast/health/node-state\",\"port\":5701}}}],"
+                        + "\"nodeName\":\"node-%5$d\"},\"status\":{\"phase\":\"Running\",\"conditions\":[{\"type\":\"Ready\","
+                        + "\"status\":\"True\"},{\"type\":\"ContainersReady\",\"status\":\"True\"}],\"hostIP\":\"10.0.1.%5$d\","
+                        + "\"podIP\":\"10.1.%6$d.%7$d\",\"containerStatuses\":[{\"name\":\"hazelcast\",\"ready\":true,"
+                        + "\"restartCount\":0,\"image\":\"hazelcast/hazelcast:4.2.2\"}]}}",
+                i, managedField, volumes, env, i % 10, i / 250, i % 250);
+    }
+}
@@ -17,26 +17,41 @@
 package com.hazelcast.kubernetes;
 
 import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.cluster.Address;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.NoLogFactory;
 import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import com.hazelcast.test.AssertTask;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
+import static com.hazelcast.test.HazelcastTestSupport.assertTrueEventually;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest(KubernetesApiEndpointResolver.class)
+@PrepareForTest({KubernetesApiEndpointResolver.class, EndpointWatcher.class})
 public class KubernetesApiEndpointResolverTest {
     private static final ILogger LOGGER = new NoLogFactory().getLogger("no");
     private static final String SERVICE_NAME = "serviceName";
@@ -46,6 +61,9 @@ public class KubernetesApiEndpointResolverTest {
     private static final String POD_LABEL_VALUE = "podLabelValue";
     private static final Boolean RESOLVE_NOT_READY_ADDRESSES = true;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Mock
     private KubernetesClient client;
 
@@ -162,6 +180,169 @@ public class KubernetesApiEndpointResolverTest {
         assertEquals(0, nodes.size());
     }
 
+    @Test
+    public void resolveFallsBackToPollingWhenWatchNotInSync() {
+        // given
+        List<Endpoint> endpoints = createEndpoints(2);
+        given(client.endpointsByName(SERVICE_NAME)).willReturn(endpoints);
+        given(client.list(any(DiscoveryResource.class))).willThrow(new RestClientException("Forbidden", 403));
+
+        KubernetesApiEndpointResolver sut = new KubernetesApiEndpointResolver(LOGGER, SERVICE_NAME, 0, null, null, null, null, null,
+                client).withWatch(true);
+        sut.start();
+
+        // when
+        List<DiscoveryNode> nodes = sut.resolve();
+        sut.destroy();
+
+        // then
+        assertEquals(1, nodes.size());
+    }
+
+    @Test
+    public void resolveWithLastEndpointsWhenDiscoveryFails() {
+        // given
+        List<Endpoint> endpoints = createEndpoints(2);
+        given(client.endpointsByName(SERVICE_NAME)).willReturn(endpoints)
+                .willThrow(new KubernetesClientException("Discovery round deadline exceeded"));
+
+        KubernetesApiEndpointResolver sut = new KubernetesApiEndpointResolver(LOGGER, SERVICE_NAME, 0, null, null, null, null, null,
+                client);
+
+        // when
+        List<DiscoveryNode> nodes1 = sut.resolve();
+        List<DiscoveryNode> nodes2 = sut.resolve();
+
+        // then
+        assertEquals(1, nodes1.size());
+        assertEquals(1, nodes2.size());
+        assertEquals(2, nodes2.get(0).getPrivateAddress().getPort());
+    }
+
+    @Test
+    public void resolveWithFallbackResolverWhenDiscoveryFails()
+            throws Exception {
+        // given
+        List<DiscoveryNode> fallbackNodes = Collections.<DiscoveryNode>singletonList(
+                new SimpleDiscoveryNode(new Address("192.168.0.25", 5701)));
+        HazelcastKubernetesDiscoveryStrategy.EndpointResolver fallbackResolver
+                = mock(HazelcastKubernetesDiscoveryStrategy.EndpointResolver.class);
+        given(fallbackResolver.resolve()).willReturn(fallbackNodes);
+        given(client.endpointsByName(SERVICE_NAME)).willThrow(new KubernetesClientException(ApiCircuitBreaker.OPEN_MESSAGE));
+
+        KubernetesApiEndpointResolver sut = new KubernetesApiEndpointResolver(LOGGER, SERVICE_NAME, 0, null, null, null, null, null,
+                client).withFallback(fallbackResolver);
+
+        // when
+        List<DiscoveryNode> nodes = sut.resolve();
+
+        // then
+        assertEquals(fallbackNodes, nodes);
+    }
+
+    @Test
+    public void destroyShutsDownClient() {
+        // given
+        KubernetesApiEndpointResolver sut = new KubernetesApiEndpointResolver(LOGGER, SERVICE_NAME, 0, null, null, null, null, null,
+                client);
+        sut.start();
+
+        // when
+        sut.destroy();
+
+        // then
+        verify(client).shutdown();
+    }
+
+    @Test
+    public void resolveWithRefreshedEndpoints() {
+        // given
+        List<Endpoint> endpoints = createEndpoints(2);
+        given(client.endpointsByName(SERVICE_NAME)).willReturn(endpoints);
+
+        KubernetesApiEndpointResolver sut = new KubernetesApiEndpointResolver(LOGGER, SERVICE_NAME, 0, null, null, null, null, null,
+                client).withRefresh(60, 0);
+        sut.start();
+
+        // when
+        List<DiscoveryNode> nodes1 = sut.resolve();
+        List<DiscoveryNode> nodes2 = sut.resolve();
+        List<DiscoveryNode> nodes3 = sut.resolve();
+        sut.destroy();
+
+        // then
+        assertEquals(1, nodes1.size());
+        assertEquals(1, nodes2.size());
+        assertEquals(1, nodes3.size());
+        // the background refresh and possibly the first resolve, if it came before the refresh
+        verify(client, atMost(2)).endpointsByName(SERVICE_NAME);
+    }
+
+    @Test
+    public void resolveWithSnapshotWhileDiscovering()
+            throws Exception {
+        // given
+        String snapshotPath = new File(folder.getRoot(), "endpoints").getPath();
+        new EndpointSnapshotFile(snapshotPath).store(createEndpoints(2));
+        final CountDownLatch discoveryStarted = new CountDownLatch(1);
+        final CountDownLatch apiResponded = new CountDownLatch(1);
+        given(client.endpointsByName(SERVICE_NAME)).willAnswer(new Answer<List<Endpoint>>() {
+            @Override
+            public List<Endpoint> answer(InvocationOnMock invocation)
+                    throws InterruptedException {
+                discoveryStarted.countDown();
+                apiResponded.await();
+                return createEndpoints(3);
+            }
+        });
+
+        final KubernetesApiEndpointResolver sut = new KubernetesApiEndpointResolver(LOGGER, SERVICE_NAME, 0, null, null, null,
+                null, null, client).withSnapshotFile(snapshotPath);
+        sut.start();
+
+        // when
+        List<DiscoveryNode> seededNodes = sut.resolve();
+        discoveryStarted.await();
+        apiResponded.countDown();
+
+        // then
+        assertEquals(2, seededNodes.get(0).getPrivateAddress().getPort());
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(3, sut.resolve().get(0).getPrivateAddress().getPort());
+            }
+        });
+        assertEquals(3, new EndpointSnapshotFile(snapshotPath).load().get(0).getPrivateAddress().getPort().intValue());
+        sut.destroy();
+    }
+
+    @Test
+    public void resolveWithWatchStoresSnapshot()
+            throws Exception {
+        // given
+        String snapshotPath = new File(folder.getRoot(), "endpoints").getPath();
+        EndpointWatcher watcher = PowerMockito.mock(EndpointWatcher.class);
+        PowerMockito.whenNew(EndpointWatcher.class).withAnyArguments().thenReturn(watcher);
+        given(watcher.endpoints()).willReturn(createEndpoints(2), createEndpoints(3));
+
+        KubernetesApiEndpointResolver sut = new KubernetesApiEndpointResolver(LOGGER, SERVICE_NAME, 0, null, null, null, null, null,
+                client).withWatch(true).withSnapshotFile(snapshotPath);
+        sut.start();
+
+        // when
+        sut.resolve();
+        int storedPort1 = new EndpointSnapshotFile(snapshotPath).load().get(0).getPrivateAddress().getPort();
+        sut.resolve();
+        int storedPort2 = new EndpointSnapshotFile(snapshotPath).load().get(0).getPrivateAddress().getPort();
+        sut.destroy();
+
+        // then
+        assertEquals(2, storedPort1);
+        assertEquals(3, storedPort2);
+        verify(client, never()).endpointsByName(SERVICE_NAME);
+    }
+
     private static List<Endpoint> createEndpoints(int customPort) {
         return asList(createEntrypointAddress(customPort, true));
     }
@@ -19,28 +19,45 @@ package com.hazelcast.kubernetes;
 import com.github.tomakehurst.wiremock.client.MappingBuilder;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.hazelcast.kubernetes.KubernetesClient.Endpoint;
+import com.hazelcast.kubernetes.KubernetesConfig.ReadConsistency;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class KubernetesClientTest {
@@ -50,6 +67,7 @@ public class KubernetesClientTest {
     private static final String CA_CERTIFICATE = "sample-ca-certificate";
     private static final String NAMESPACE = "sample-namespace";
     private static final int RETRIES = 3;
+    private static final String CACHED_LIST_RESPONSE = "{\"kind\":\"List\",\"metadata\":{\"resourceVersion\":\"42\"},\"items\":[]}";
 
     @Rule
     public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
@@ -143,6 +161,272 @@ public class KubernetesClientTest {
                 containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702), notReady("172.17.0.6", null)));
     }
 
+    @Test
+    public void endpointsByNamespaceCoalescedWhenConcurrent()
+            throws Exception {
+        // given
+        String podsPath = String.format("/api/v1/namespaces/%s/pods", NAMESPACE);
+        stubFor(get(urlEqualTo(podsPath))
+                .willReturn(aResponse().withStatus(200).withBody(podsListResponse()).withFixedDelay(2000)));
+        // two clients, as if of two Hazelcast instances in one JVM
+        final KubernetesClient[] clients = {kubernetesClient, newKubernetesClient(false)};
+        int threads = 32;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<Endpoint>>> results = new ArrayList<Future<List<Endpoint>>>();
+        for (int i = 0; i < threads; i++) {
+            final KubernetesClient client = clients[i % clients.length];
+            results.add(executor.submit(new Callable<List<Endpoint>>() {
+                @Override
+                public List<Endpoint> call()
+                        throws Exception {
+                    start.await();
+                    return client.endpoints();
+                }
+            }));
+        }
+
+        // when
+        start.countDown();
+
+        // then
+        try {
+            for (Future<List<Endpoint>> result : results) {
+                assertThat(format(result.get()), containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        verify(1, getRequestedFor(urlEqualTo(podsPath)));
+    }
+
+    @Test
+    public void endpointsByNamespaceInPages() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withPageSize(1);
+        String continueToken = "eyJ2IjoibWV0YS5rOHMuaW8vdjEiLCJydiI6NDJ9==";
+        //language=JSON
+        String firstPage = "{\n"
+                + "  \"kind\": \"PodList\",\n"
+                + "  \"metadata\": {\n"
+                + "    \"continue\": \"" + continueToken + "\"\n"
+                + "  },\n"
+                + "  \"items\": [\n"
+                + "    {\n"
+                + "      \"spec\": {\n"
+                + "        \"containers\": [\n"
+                + "          {\n"
+                + "            \"ports\": [\n"
+                + "              {\n"
+                + "                \"containerPort\": 5701\n"
+                + "              }\n"
+                + "            ]\n"
+                + "          }\n"
+                + "        ]\n"
+                + "      },\n"
+                + "      \"status\": {\n"
+                + "        \"podIP\": \"192.168.0.25\",\n"
+                + "        \"containerStatuses\": [\n"
+                + "          {\n"
+                + "            \"ready\": true\n"
+                + "          }\n"
+                + "        ]\n"
+                + "      }\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}";
+        //language=JSON
+        String lastPage = "{\n"
+                + "  \"kind\": \"PodList\",\n"
+                + "  \"metadata\": {\n"
+                + "    \"continue\": \"\"\n"
+                + "  },\n"
+                + "  \"items\": [\n"
+                + "    {\n"
+                + "      \"spec\": {\n"
+                + "        \"containers\": [\n"
+                + "          {\n"
+                + "            \"ports\": [\n"
+                + "              {\n"
+                + "                \"containerPort\": 5702\n"
+                + "              }\n"
+                + "            ]\n"
+                + "          }\n"
+                + "        ]\n"
+                + "      },\n"
+                + "      \"status\": {\n"
+                + "        \"podIP\": \"172.17.0.5\",\n"
+                + "        \"containerStatuses\": [\n"
+                + "          {\n"
+                + "            \"ready\": false\n"
+                + "          }\n"
+                + "        ]\n"
+                + "      }\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}";
+        Map<String, String> firstPageParams = new HashMap<String, String>();
+        firstPageParams.put("limit", "1");
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), firstPageParams, firstPage);
+        Map<String, String> lastPageParams = new HashMap<String, String>(firstPageParams);
+        lastPageParams.put("continue", continueToken);
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), lastPageParams, lastPage);
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), notReady("172.17.0.5", 5702)));
+        verify(2, getRequestedFor(urlPathMatching(String.format("/api/v1/namespaces/%s/pods", NAMESPACE))));
+    }
+
+    @Test
+    public void endpointsByNamespaceReadFromCache() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withReadConsistency(ReadConsistency.ANY);
+        stubCachedReads();
+
+        // when
+        kubernetesClient.endpoints();
+
+        // then
+        assertReadFromCache(String.format("/api/v1/namespaces/%s/pods", NAMESPACE));
+    }
+
+    @Test
+    public void endpointsByNamespaceAndServiceLabelReadFromCache() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withReadConsistency(ReadConsistency.ANY);
+        stubCachedReads();
+
+        // when
+        kubernetesClient.endpointsByServiceLabel("app", "hazelcast");
+
+        // then
+        assertReadFromCache(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE));
+    }
+
+    @Test
+    public void endpointsByNamespaceAndServiceNameReadFromCache() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withReadConsistency(ReadConsistency.ANY);
+        stubCachedReads();
+
+        // when
+        kubernetesClient.endpointsByName("hazelcast");
+
+        // then
+        assertReadFromCache(String.format("/api/v1/namespaces/%s/endpoints/hazelcast", NAMESPACE));
+    }
+
+    @Test
+    public void endpointsByNamespaceAndPodLabelReadFromCache() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withReadConsistency(ReadConsistency.ANY);
+        stubCachedReads();
+
+        // when
+        kubernetesClient.endpointsByPodLabel("app", "hazelcast");
+
+        // then
+        assertReadFromCache(String.format("/api/v1/namespaces/%s/pods", NAMESPACE));
+    }
+
+    @Test
+    public void endpointsByNamespaceNotOlderThanPreviousRound() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withReadConsistency(ReadConsistency.NOT_OLDER_THAN);
+        stubCachedReads();
+        stubFor(get(urlPathMatching("/api/.*"))
+                .withQueryParam("resourceVersion", equalTo("42"))
+                .withQueryParam("resourceVersionMatch", equalTo("NotOlderThan"))
+                .atPriority(1)
+                .willReturn(aResponse().withStatus(200).withBody(CACHED_LIST_RESPONSE)));
+
+        // when
+        kubernetesClient.endpoints();
+        kubernetesClient.endpoints();
+
+        // then
+        String podsPath = String.format("/api/v1/namespaces/%s/pods", NAMESPACE);
+        verify(1, getRequestedFor(urlPathEqualTo(podsPath)).withQueryParam("resourceVersion", equalTo("0")));
+        verify(1, getRequestedFor(urlPathEqualTo(podsPath))
+                .withQueryParam("resourceVersion", equalTo("42"))
+                .withQueryParam("resourceVersionMatch", equalTo("NotOlderThan")));
+    }
+
+    @Test
+    public void endpointsByNamespaceWithoutDedicatedServicesDoesNotListServices() {
+        // given
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), podsListResponse());
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), "{\"kind\":\"EndpointsList\",\"items\":[]}");
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
+        verify(1, getRequestedFor(urlPathEqualTo(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE))));
+        verify(0, getRequestedFor(urlPathEqualTo(String.format("/api/v1/namespaces/%s/services", NAMESPACE))));
+    }
+
+    @Test
+    public void endpointsByNamespaceWithProtobuf() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withProtobuf(true);
+        ProtobufWriter podList = new ProtobufWriter()
+                .message(2, protobufPod("192.168.0.25", 5701, true))
+                .message(2, protobufPod("172.17.0.5", 5702, false));
+        stubFor(get(urlEqualTo(String.format("/api/v1/namespaces/%s/pods", NAMESPACE)))
+                .withHeader("Accept", containing(KubernetesProtobuf.CONTENT_TYPE))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", KubernetesProtobuf.CONTENT_TYPE)
+                        .withBody(ProtobufWriter.kubernetesObject("v1", "PodList", podList))));
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), notReady("172.17.0.5", 5702)));
+    }
+
+    @Test
+    public void endpointsByNamespaceWithProtobufSkipsPodsWithoutIp() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withProtobuf(true);
+        ProtobufWriter podList = new ProtobufWriter()
+                .message(2, protobufPod("192.168.0.25", 5701, true))
+                .message(2, protobufPod("", 5702, false));
+        stubFor(get(urlEqualTo(String.format("/api/v1/namespaces/%s/pods", NAMESPACE)))
+                .withHeader("Accept", containing(KubernetesProtobuf.CONTENT_TYPE))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", KubernetesProtobuf.CONTENT_TYPE)
+                        .withBody(ProtobufWriter.kubernetesObject("v1", "PodList", podList))));
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701)));
+    }
+
+    @Test
+    public void endpointsByNamespaceWithProtobufRespondedWithJson() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withProtobuf(true);
+        stubFor(get(urlEqualTo(String.format("/api/v1/namespaces/%s/pods", NAMESPACE)))
+                .withHeader("Accept", containing("application/json"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(podsListResponse())));
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
+    }
+
     @Test
     public void endpointsByNamespaceAndServiceLabel() {
         // given
@@ -230,6 +514,82 @@ public class KubernetesClientTest {
         assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
     }
 
+    @Test
+    public void endpointsByNamespaceAndServiceNameWithEndpointSlices() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withEndpointSlices(true);
+        stubFor(get(urlMatching("/apis/.*")).atPriority(5)
+                .willReturn(aResponse().withStatus(401).withBody("\"reason\":\"Forbidden\"")));
+
+        //language=JSON
+        String endpointSlicesListResponse = "{\n"
+                + "  \"kind\": \"EndpointSliceList\",\n"
+                + "  \"items\": [\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"service-name-abc\",\n"
+                + "        \"labels\": {\n"
+                + "          \"kubernetes.io/service-name\": \"service-name\"\n"
+                + "        }\n"
+                + "      },\n"
+                + "      \"addressType\": \"IPv4\",\n"
+                + "      \"endpoints\": [\n"
+                + "        {\n"
+                + "          \"addresses\": [\"192.168.0.25\"],\n"
+                + "          \"conditions\": {\"ready\": true, \"serving\": true, \"terminating\": false},\n"
+                + "          \"nodeName\": \"node-name-1\"\n"
+                + "        },\n"
+                + "        {\n"
+                + "          \"addresses\": [\"172.17.0.5\"],\n"
+                + "          \"conditions\": {\"ready\": false, \"serving\": false, \"terminating\": false}\n"
+                + "        },\n"
+                + "        {\n"
+                + "          \"addresses\": [\"172.17.0.6\"],\n"
+                + "          \"conditions\": {\"ready\": false, \"serving\": false, \"terminating\": true}\n"
+                + "        }\n"
+                + "      ],\n"
+                + "      \"ports\": [\n"
+                + "        {\n"
+                + "          \"port\": 5701\n"
+                + "        }\n"
+                + "      ]\n"
+                + "    },\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"service-name-def\",\n"
+                + "        \"labels\": {\n"
+                + "          \"kubernetes.io/service-name\": \"service-name\"\n"
+                + "        }\n"
+                + "      },\n"
+                + "      \"addressType\": \"IPv4\",\n"
+                + "      \"endpoints\": [\n"
+                + "        {\n"
+                + "          \"addresses\": [\"192.168.0.25\"],\n"
+                + "          \"conditions\": {\"ready\": true}\n"
+                + "        },\n"
+                + "        {\n"
+                + "          \"addresses\": [\"192.168.0.26\"]\n"
+                + "        }\n"
+                + "      ],\n"
+                + "      \"ports\": [\n"
+                + "        {\n"
+                + "          \"port\": 5701\n"
+                + "        }\n"
+                + "      ]\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}";
+        stub("/apis/discovery.k8s.io/v1/namespaces/sample-namespace/endpointslices",
+                singletonMap("labelSelector", "kubernetes.io/service-name=service-name"), endpointSlicesListResponse);
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpointsByName("service-name");
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), notReady("172.17.0.5", 5701),
+                ready("192.168.0.26", 5701)));
+    }
+
     @Test
     public void endpointsByNamespaceAndPodLabel() {
         // given
@@ -295,6 +655,24 @@ public class KubernetesClientTest {
                 containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
     }
 
+    @Test
+    public void endpointsByNamespaceAndPodLabelWithFieldSelector() {
+        // given
+        kubernetesClient = newKubernetesClient(false).withPodFieldSelector("status.phase=Running");
+        String podLabel = "sample-pod-label";
+        String podLabelValue = "sample-pod-label-value";
+        Map<String, String> queryParams = new HashMap<String, String>();
+        queryParams.put("labelSelector", String.format("%s=%s", podLabel, podLabelValue));
+        queryParams.put("fieldSelector", "status.phase=Running");
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), queryParams, podsListResponse());
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpointsByPodLabel(podLabel, podLabelValue);
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
+    }
+
     @Test
     public void zoneBeta() {
         // given
@@ -420,6 +798,56 @@ public class KubernetesClientTest {
         assertEquals("us-central1-a", zone);
     }
 
+    @Test
+    public void zoneFromNodeMetadata() {
+        // given
+        String podName = "pod-name";
+        stub(String.format("/api/v1/namespaces/%s/pods/%s", NAMESPACE, podName),
+                "{\"kind\":\"Pod\",\"spec\":{\"nodeName\":\"node-name\"}}");
+
+        //language=JSON
+        String nodeMetadataResponse = "{\n"
+                + "  \"kind\": \"PartialObjectMetadata\",\n"
+                + "  \"apiVersion\": \"meta.k8s.io/v1\",\n"
+                + "  \"metadata\": {\n"
+                + "    \"name\": \"node-name\",\n"
+                + "    \"labels\": {\n"
+                + "      \"topology.kubernetes.io/zone\": \"us-central1-a\"\n"
+                + "    }\n"
+                + "  }\n"
+                + "}";
+        stubFor(get(urlEqualTo("/api/v1/nodes/node-name"))
+                .withHeader("Accept", containing("as=PartialObjectMetadata"))
+                .willReturn(aResponse().withStatus(200).withBody(nodeMetadataResponse)));
+
+        // when
+        String zone = kubernetesClient.zone(podName);
+
+        // then
+        assertEquals("us-central1-a", zone);
+    }
+
+    @Test
+    public void zoneFromNodeWhenMetadataNotAcceptable() {
+        // given
+        String podName = "pod-name";
+        stub(String.format("/api/v1/namespaces/%s/pods/%s", NAMESPACE, podName),
+                "{\"kind\":\"Pod\",\"spec\":{\"nodeName\":\"node-name\"}}");
+        stubFor(get(urlEqualTo("/api/v1/nodes/node-name"))
+                .withHeader("Accept", containing("as=PartialObjectMetadata"))
+                .atPriority(1)
+                .willReturn(aResponse().withStatus(406).withBody("{\"reason\":\"NotAcceptable\"}")));
+        stub("/api/v1/nodes/node-name",
+                "{\"kind\":\"Node\",\"metadata\":{\"labels\":{\"topology.kubernetes.io/zone\":\"us-central1-a\"}}}");
+
+        // when
+        String zone = kubernetesClient.zone(podName);
+
+        // then
+        assertEquals("us-central1-a", zone);
+        verify(2, getRequestedFor(urlEqualTo("/api/v1/nodes/node-name")));
+    }
+
     @Test
     public void endpointsByNamespaceWithLoadBalancerPublicIp() {
         // given
@@ -535,35 +963,399 @@ public class KubernetesClientTest {
     }
 
     @Test
-    public void endpointsByNamespaceWithNodeName() {
+    public void endpointsByNamespaceWithNodePublicIpSequentially() {
         // given
-        // create KubernetesClient with useNodeNameAsExternalAddress=true
-        kubernetesClient = newKubernetesClient(true);
-
+        kubernetesClient.withParallelism(1);
         stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), podsListResponse());
         stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), endpointsListResponse());
-
         stub(String.format("/api/v1/namespaces/%s/services/service-0", NAMESPACE), nodePortService1Response());
         stub(String.format("/api/v1/namespaces/%s/services/service-1", NAMESPACE), nodePortService2Response());
-
-        String forbiddenBody = "\"reason\":\"Forbidden\"";
-        stub("/api/v1/nodes/node-name-1", 403, forbiddenBody);
-        stub("/api/v1/nodes/node-name-2", 403, forbiddenBody);
+        stub("/api/v1/nodes/node-name-1", nodeResponse("35.232.226.200"));
+        stub("/api/v1/nodes/node-name-2", nodeResponse("35.232.226.201"));
 
         // when
         List<Endpoint> result = kubernetesClient.endpoints();
 
         // then
         assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
-        assertThat(formatPublic(result), containsInAnyOrder(ready("node-name-1", 31916), ready("node-name-2", 31917)));
+        assertThat(formatPublic(result), containsInAnyOrder(ready("35.232.226.200", 31916), ready("35.232.226.201", 31917)));
     }
 
-    private static String podsListResponse() {
-        //language=JSON
-        return "{\n"
-                + "  \"kind\": \"PodList\",\n"
-                + "  \"items\": [\n"
-                + "    {\n"
+    @Test
+    public void endpointsByNamespaceWithPublicIpFromCache() {
+        // given
+        kubernetesClient.withPublicAddressCacheTtlSeconds(60);
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), podsListResponse());
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), endpointsListResponse());
+        stub(String.format("/api/v1/namespaces/%s/services/service-0", NAMESPACE), nodePortService1Response());
+        stub(String.format("/api/v1/namespaces/%s/services/service-1", NAMESPACE), nodePortService2Response());
+        stub("/api/v1/nodes/node-name-1", nodeResponse("35.232.226.200"));
+        stub("/api/v1/nodes/node-name-2", nodeResponse("35.232.226.201"));
+        kubernetesClient.endpoints();
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(formatPublic(result), containsInAnyOrder(ready("35.232.226.200", 31916), ready("35.232.226.201", 31917)));
+        verify(1, getRequestedFor(urlEqualTo(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE))));
+        verify(1, getRequestedFor(urlEqualTo(String.format("/api/v1/namespaces/%s/services/service-0", NAMESPACE))));
+        verify(1, getRequestedFor(urlEqualTo("/api/v1/nodes/node-name-1")));
+        // pods only
+        assertEquals(1, kubernetesClient.lastRound().getApiCalls());
+        assertEquals(2, kubernetesClient.lastRound().getPublicAddressCacheHits());
+        assertEquals(0, kubernetesClient.lastRound().getPublicAddressCacheMisses());
+        assertEquals(2, kubernetesClient.publicAddressCache().getHits());
+        assertEquals(2, kubernetesClient.publicAddressCache().getMisses());
+    }
+
+    @Test
+    public void endpointsByNamespaceWithoutPublicIpWhenRoundDeadlineExceeded() {
+        // given
+        kubernetesClient.withRoundTimeoutSeconds(1);
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), podsListResponse());
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), endpointsListResponse());
+        stubFor(get(urlPathMatching(String.format("/api/v1/namespaces/%s/services.*", NAMESPACE)))
+                .willReturn(aResponse().withStatus(200).withBody(nodePortService1Response()).withFixedDelay(3000)));
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
+        for (Endpoint endpoint : result) {
+            assertNull(endpoint.getPublicAddress());
+        }
+    }
+
+    @Test
+    public void endpointsByNamespaceFailsFastWhenRoundDeadlineExceeded() {
+        // given
+        kubernetesClient.withRoundTimeoutSeconds(1);
+        stubFor(get(urlPathMatching(String.format("/api/v1/namespaces/%s/pods.*", NAMESPACE)))
+                .willReturn(aResponse().withStatus(200).withBody(podsListResponse()).withFixedDelay(10000)));
+
+        // when
+        long startTimeMs = System.currentTimeMillis();
+        RestClientException exception = null;
+        try {
+            kubernetesClient.endpoints();
+        } catch (RestClientException e) {
+            exception = e;
+        }
+        long endTimeMs = System.currentTimeMillis();
+
+        // then
+        assertNotNull(exception);
+        assertTrue(endTimeMs - startTimeMs < 5000);
+    }
+
+    @Test
+    public void endpointsByNamespaceFailsFastWhenCircuitBreakerOpen() {
+        // given
+        kubernetesClient.withCircuitBreaker(new ApiCircuitBreaker(2, 60));
+        String podsPath = String.format("/api/v1/namespaces/%s/pods", NAMESPACE);
+        stubFor(get(urlPathEqualTo(podsPath)).willReturn(aResponse().withStatus(500).withBody("Internal error")));
+        try {
+            kubernetesClient.endpoints();
+        } catch (KubernetesClientException e) {
+            // the breaker opens after the second failed call
+        }
+
+        // when
+        KubernetesClientException exception = null;
+        try {
+            kubernetesClient.endpoints();
+        } catch (KubernetesClientException e) {
+            exception = e;
+        }
+
+        // then
+        assertNotNull(exception);
+        assertEquals(ApiCircuitBreaker.OPEN_MESSAGE, exception.getMessage());
+        verify(2, getRequestedFor(urlPathEqualTo(podsPath)));
+    }
+
+    @Test
+    public void endpointsByNamespaceWithNodeName() {
+        // given
+        // create KubernetesClient with useNodeNameAsExternalAddress=true
+        kubernetesClient = newKubernetesClient(true);
+
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), podsListResponse());
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), endpointsListResponse());
+
+        stub(String.format("/api/v1/namespaces/%s/services/service-0", NAMESPACE), nodePortService1Response());
+        stub(String.format("/api/v1/namespaces/%s/services/service-1", NAMESPACE), nodePortService2Response());
+
+        String forbiddenBody = "\"reason\":\"Forbidden\"";
+        stub("/api/v1/nodes/node-name-1", 403, forbiddenBody);
+        stub("/api/v1/nodes/node-name-2", 403, forbiddenBody);
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(format(result), containsInAnyOrder(ready("192.168.0.25", 5701), ready("172.17.0.5", 5702)));
+        assertThat(formatPublic(result), containsInAnyOrder(ready("node-name-1", 31916), ready("node-name-2", 31917)));
+    }
+
+    @Test
+    public void endpointsByNamespaceWithPublicIpFromServicesList() {
+        // given
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), podsListResponse());
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), endpointsListResponse());
+
+        //language=JSON
+        String servicesListResponse = "{\n"
+                + "  \"kind\": \"ServiceList\",\n"
+                + "  \"items\": [\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"service-0\"\n"
+                + "      },\n"
+                + "      \"spec\": {\n"
+                + "        \"ports\": [\n"
+                + "          {\n"
+                + "            \"port\": 32123,\n"
+                + "            \"nodePort\": 31916\n"
+                + "          }\n"
+                + "        ]\n"
+                + "      },\n"
+                + "      \"status\": {\n"
+                + "        \"loadBalancer\": {\n"
+                + "          \"ingress\": [\n"
+                + "            {\n"
+                + "              \"ip\": \"35.232.226.200\"\n"
+                + "            }\n"
+                + "          ]\n"
+                + "        }\n"
+                + "      }\n"
+                + "    },\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"service-1\"\n"
+                + "      },\n"
+                + "      \"spec\": {\n"
+                + "        \"ports\": [\n"
+                + "          {\n"
+                + "            \"port\": 32124,\n"
+                + "            \"nodePort\": 31917\n"
+                + "          }\n"
+                + "        ]\n"
+                + "      },\n"
+                + "      \"status\": {\n"
+                + "        \"loadBalancer\": {\n"
+                + "          \"ingress\": [\n"
+                + "            {\n"
+                + "              \"ip\": \"35.232.226.201\"\n"
+                + "            }\n"
+                + "          ]\n"
+                + "        }\n"
+                + "      }\n"
+                + "    },\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"other-service\"\n"
+                + "      }\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}";
+        stub(String.format("/api/v1/namespaces/%s/services", NAMESPACE), servicesListResponse);
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(formatPublic(result), containsInAnyOrder(ready("35.232.226.200", 32123), ready("35.232.226.201", 32124)));
+        verify(0, getRequestedFor(urlPathMatching(String.format("/api/v1/namespaces/%s/services/.*", NAMESPACE))));
+    }
+
+    @Test
+    public void endpointsByNamespaceWithNodePublicIpFromNodesList() {
+        // given
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), podsListResponse());
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), endpointsListResponse());
+
+        stub(String.format("/api/v1/namespaces/%s/services/service-0", NAMESPACE), nodePortService1Response());
+        stub(String.format("/api/v1/namespaces/%s/services/service-1", NAMESPACE), nodePortService2Response());
+
+        stub("/api/v1/nodes", nodesListResponse("35.232.226.200", "35.232.226.201"));
+
+        // when
+        kubernetesClient.endpoints();
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(formatPublic(result), containsInAnyOrder(ready("35.232.226.200", 31916), ready("35.232.226.201", 31917)));
+        verify(1, getRequestedFor(urlEqualTo("/api/v1/nodes")));
+        verify(0, getRequestedFor(urlPathMatching("/api/v1/nodes/.*")));
+    }
+
+    @Test
+    public void endpointsByNamespaceWithNodePublicIpListsNodesAgainAfterTtl() {
+        // given
+        kubernetesClient.withNodeIndexTtlSeconds(0);
+        stub(String.format("/api/v1/namespaces/%s/pods", NAMESPACE), podsListResponse());
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), endpointsListResponse());
+
+        stub(String.format("/api/v1/namespaces/%s/services/service-0", NAMESPACE), nodePortService1Response());
+        stub(String.format("/api/v1/namespaces/%s/services/service-1", NAMESPACE), nodePortService2Response());
+
+        stub("/api/v1/nodes", nodesListResponse("35.232.226.200", "35.232.226.201"));
+        kubernetesClient.endpoints();
+        stub("/api/v1/nodes", nodesListResponse("35.232.226.202", "35.232.226.201"));
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpoints();
+
+        // then
+        assertThat(formatPublic(result), containsInAnyOrder(ready("35.232.226.202", 31916), ready("35.232.226.201", 31917)));
+        verify(2, getRequestedFor(urlEqualTo("/api/v1/nodes")));
+    }
+
+    @Test
+    public void endpointsByServiceLabelWithPublicIpFetchesOnlyOtherEndpoints() {
+        // given
+        //language=JSON
+        String memberEndpointsListResponse = "{\n"
+                + "  \"kind\": \"EndpointsList\",\n"
+                + "  \"items\": [\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"my-release-hazelcast\"\n"
+                + "      },\n"
+                + "      \"subsets\": [\n"
+                + "        {\n"
+                + "          \"addresses\": [\n"
+                + "            {\n"
+                + "              \"ip\": \"192.168.0.25\",\n"
+                + "              \"nodeName\": \"node-name-1\"\n"
+                + "            },\n"
+                + "            {\n"
+                + "              \"ip\": \"172.17.0.5\",\n"
+                + "              \"nodeName\": \"node-name-2\"\n"
+                + "            }\n"
+                + "          ],\n"
+                + "          \"ports\": [\n"
+                + "            {\n"
+                + "              \"port\": 5701\n"
+                + "            }\n"
+                + "          ]\n"
+                + "        }\n"
+                + "      ]\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}";
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), singletonMap("labelSelector", "app=hazelcast"),
+                memberEndpointsListResponse);
+
+        //language=JSON
+        String otherEndpointsListResponse = "{\n"
+                + "  \"kind\": \"EndpointsList\",\n"
+                + "  \"items\": [\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"service-0\"\n"
+                + "      },\n"
+                + "      \"subsets\": [\n"
+                + "        {\n"
+                + "          \"addresses\": [\n"
+                + "            {\n"
+                + "              \"ip\": \"192.168.0.25\",\n"
+                + "              \"nodeName\": \"node-name-1\"\n"
+                + "            }\n"
+                + "          ],\n"
+                + "          \"ports\": [\n"
+                + "            {\n"
+                + "              \"port\": 5701\n"
+                + "            }\n"
+                + "          ]\n"
+                + "        }\n"
+                + "      ]\n"
+                + "    },\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"service-1\"\n"
+                + "      },\n"
+                + "      \"subsets\": [\n"
+                + "        {\n"
+                + "          \"addresses\": [\n"
+                + "            {\n"
+                + "              \"ip\": \"172.17.0.5\",\n"
+                + "              \"nodeName\": \"node-name-2\"\n"
+                + "            }\n"
+                + "          ],\n"
+                + "          \"ports\": [\n"
+                + "            {\n"
+                + "              \"port\": 5701\n"
+                + "            }\n"
+                + "          ]\n"
+                + "        }\n"
+                + "      ]\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}";
+        stub(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE), singletonMap("labelSelector", "app!=hazelcast"),
+                otherEndpointsListResponse);
+        stub(String.format("/api/v1/namespaces/%s/services/service-0", NAMESPACE), nodePortService1Response());
+        stub(String.format("/api/v1/namespaces/%s/services/service-1", NAMESPACE), nodePortService2Response());
+        stub("/api/v1/nodes/node-name-1", nodeResponse("35.232.226.200"));
+        stub("/api/v1/nodes/node-name-2", nodeResponse("35.232.226.201"));
+
+        // when
+        List<Endpoint> result = kubernetesClient.endpointsByServiceLabel("app", "hazelcast");
+
+        // then
+        assertThat(formatPublic(result), containsInAnyOrder(ready("35.232.226.200", 31916), ready("35.232.226.201", 31917)));
+        verify(0, getRequestedFor(urlEqualTo(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE))));
+        verify(2, getRequestedFor(urlPathMatching(String.format("/api/v1/namespaces/%s/endpoints", NAMESPACE))));
+        // endpoints (2), services list (forbidden), services (2), nodes list (forbidden), nodes (2)
+        assertEquals(8, kubernetesClient.lastRound().getApiCalls());
+        assertTrue(kubernetesClient.lastRound().getReceivedBytes() > memberEndpointsListResponse.length());
+    }
+
+    private static String nodesListResponse(String externalIp1, String externalIp2) {
+        //language=JSON
+        return "{\n"
+                + "  \"kind\": \"NodeList\",\n"
+                + "  \"items\": [\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"node-name-1\"\n"
+                + "      },\n"
+                + "      \"status\": {\n"
+                + "        \"addresses\": [\n"
+                + "          {\n"
+                + "            \"type\": \"ExternalIP\",\n"
+                + "            \"address\": \"" + externalIp1 + "\"\n"
+                + "          }\n"
+                + "        ]\n"
+                + "      }\n"
+                + "    },\n"
+                + "    {\n"
+                + "      \"metadata\": {\n"
+                + "        \"name\": \"node-name-2\"\n"
+                + "      },\n"
+                + "      \"status\": {\n"
+                + "        \"addresses\": [\n"
+                + "          {\n"
+                + "            \"type\": \"ExternalIP\",\n"
+                + "            \"address\": \"" + externalIp2 + "\"\n"
+                + "          }\n"
+                + "        ]\n"
+                + "      }\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}";
+    }
+
+    private static String podsListResponse() {
+        //language=JSON
+        return "{\n"
+                + "  \"kind\": \"PodList\",\n"
+                + "  \"items\": [\n"
+                + "    {\n"
                 + "      \"spec\": {\n"
                 + "        \"containers\": [\n"
                 + "          {\n"
@@ -682,6 +1474,21 @@ public class KubernetesClientTest {
                 + "}";
     }
 
+    private static ProtobufWriter protobufPod(String ip, int port, boolean ready) {
+        return new ProtobufWriter()
+                .message(2, new ProtobufWriter()
+                        .message(2, new ProtobufWriter()
+                                .message(6, new ProtobufWriter().varint(3, port))))
+                .message(3, new ProtobufWriter()
+                        .string(6, ip)
+                        .message(8, new ProtobufWriter().bool(4, ready)));
+    }
+
+    private static String nodeResponse(String externalIp) {
+        return String.format("{\"kind\":\"Node\",\"status\":{\"addresses\":[{\"type\":\"ExternalIP\",\"address\":\"%s\"}]}}",
+                externalIp);
+    }
+
     private static String nodePortService1Response() {
         //language=JSON
         return "{\n"
@@ -777,6 +1584,18 @@ public class KubernetesClientTest {
         return result;
     }
 
+    private static void stubCachedReads() {
+        stubFor(get(urlPathMatching("/api/.*"))
+                .withQueryParam("resourceVersion", equalTo("0"))
+                .atPriority(1)
+                .willReturn(aResponse().withStatus(200).withBody(CACHED_LIST_RESPONSE)));
+    }
+
+    private static void assertReadFromCache(String path) {
+        verify(getRequestedFor(urlPathEqualTo(path)).withQueryParam("resourceVersion", equalTo("0")));
+        verify(0, getRequestedFor(urlPathMatching("/api/.*")).withQueryParam("resourceVersion", absent()));
+    }
+
     private static void stub(String url, String response) {
         stub(url, 200, response);
     }
@@ -809,6 +1628,33 @@ public class KubernetesClientTest {
         return String.format("%s:%s:%s", ip, port, isReady);
     }
 
+    @Test
+    public void caCertificateReloadedWhenFileChanged()
+            throws Exception {
+        // given
+        File caCertificateFile = File.createTempFile("ca-certificate", ".crt");
+        caCertificateFile.deleteOnExit();
+        writeFile(caCertificateFile, "old-ca-certificate");
+        kubernetesClient = newKubernetesClient(false).withCaCertificateFile(caCertificateFile.getAbsolutePath());
+
+        // when
+        writeFile(caCertificateFile, "new-ca-certificate");
+        caCertificateFile.setLastModified(caCertificateFile.lastModified() + 1000);
+
+        // then
+        assertEquals("new-ca-certificate", kubernetesClient.caCertificate());
+    }
+
+    private static void writeFile(File file, String content)
+            throws IOException {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            outputStream.close();
+        }
+    }
+
     @Test
     public void rbacYamlFileExists() {
         // rbac.yaml file is mentioned in logs, so the file must exist in the repo
@@ -35,6 +35,11 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import static com.hazelcast.kubernetes.KubernetesConfig.DiscoveryMode;
+import static com.hazelcast.kubernetes.KubernetesConfig.ReadConsistency;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_HEDGE_PERCENTILE;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_MAX_CONCURRENT_REQUESTS;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_PARALLELISM;
+import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_READ_CONSISTENCY;
 import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_RETIRES;
 import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_API_TOKEN;
 import static com.hazelcast.kubernetes.KubernetesProperties.KUBERNETES_CA_CERTIFICATE;
@@ -270,6 +275,71 @@ public class KubernetesConfigTest {
         // throws exception
     }
 
+    @Test(expected = InvalidConfigurationException.class)
+    public void invalidKubernetesApiReadConsistency() {
+        // given
+        Map<String, Comparable> properties = createProperties();
+        properties.put(KUBERNETES_API_READ_CONSISTENCY.key(), "eventual");
+
+        // when
+        new KubernetesConfig(properties);
+
+        // then
+        // throws exception
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void invalidKubernetesApiParallelism() {
+        // given
+        Map<String, Comparable> properties = createProperties();
+        properties.put(KUBERNETES_API_PARALLELISM.key(), 0);
+
+        // when
+        new KubernetesConfig(properties);
+
+        // then
+        // throws exception
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void invalidKubernetesApiHedgePercentile() {
+        // given
+        Map<String, Comparable> properties = createProperties();
+        properties.put(KUBERNETES_API_HEDGE_PERCENTILE.key(), 101);
+
+        // when
+        new KubernetesConfig(properties);
+
+        // then
+        // throws exception
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void invalidKubernetesApiMaxConcurrentRequests() {
+        // given
+        Map<String, Comparable> properties = createProperties();
+        properties.put(KUBERNETES_API_MAX_CONCURRENT_REQUESTS.key(), -1);
+
+        // when
+        new KubernetesConfig(properties);
+
+        // then
+        // throws exception
+    }
+
+    @Test
+    public void kubernetesApiReadConsistency() {
+        // given
+        Map<String, Comparable> properties = createProperties();
+        properties.put(KUBERNETES_API_READ_CONSISTENCY.key(), "not-older-than");
+
+        // when
+        KubernetesConfig config = new KubernetesConfig(properties);
+
+        // then
+        assertEquals(ReadConsistency.NOT_OLDER_THAN, config.getKubernetesApiReadConsistency());
+    }
+
     private static Map<String, Comparable> createProperties() {
         Map<String, Comparable> properties = new HashMap<String, Comparable>();
         // Predefined test properties
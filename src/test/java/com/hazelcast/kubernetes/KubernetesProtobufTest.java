@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.hazelcast.kubernetes.ProtobufWriter.kubernetesObject;
+import static org.junit.Assert.assertEquals;
+
+public class KubernetesProtobufTest {
+
+    @Test
+    public void decodesPodList() {
+        // given
+        ProtobufWriter pod = new ProtobufWriter()
+                .message(1, new ProtobufWriter()
+                        .string(1, "hazelcast-0")
+                        .string(3, "default")
+                        .string(6, "42")
+                        .message(11, new ProtobufWriter().string(1, "app").string(2, "hazelcast")))
+                .message(2, new ProtobufWriter()
+                        .message(2, new ProtobufWriter()
+                                .string(1, "hazelcast")
+                                .string(2, "hazelcast/hazelcast:4.2")
+                                .message(6, new ProtobufWriter().string(1, "hazelcast").varint(3, 5701).string(4, "TCP")))
+                        .string(10, "node-1"))
+                .message(3, new ProtobufWriter()
+                        .string(1, "Running")
+                        .string(6, "10.0.0.1")
+                        .message(8, new ProtobufWriter().string(1, "hazelcast").bool(4, true).varint(5, 0)));
+        ProtobufWriter podList = new ProtobufWriter()
+                .message(1, new ProtobufWriter().string(2, "43").string(3, "next-page"))
+                .message(2, pod);
+
+        // when
+        JsonObject result = KubernetesProtobuf.POD_LIST.decode(kubernetesObject("v1", "PodList", podList));
+
+        // then
+        assertEquals(Json.parse("{\"metadata\":{\"resourceVersion\":\"43\",\"continue\":\"next-page\"},"
+                + "\"items\":[{\"metadata\":{\"name\":\"hazelcast-0\",\"resourceVersion\":\"42\"},"
+                + "\"spec\":{\"containers\":[{\"ports\":[{\"containerPort\":5701}]}],\"nodeName\":\"node-1\"},"
+                + "\"status\":{\"podIP\":\"10.0.0.1\",\"containerStatuses\":[{\"ready\":true}]}}]}"), result);
+    }
+
+    @Test
+    public void skipsEmptyStrings() {
+        // given
+        ProtobufWriter pendingPod = new ProtobufWriter()
+                .message(1, new ProtobufWriter().string(1, "hazelcast-0"))
+                .message(2, new ProtobufWriter().string(10, ""))
+                .message(3, new ProtobufWriter().string(1, "Pending").string(6, ""));
+        ProtobufWriter podList = new ProtobufWriter().message(2, pendingPod);
+
+        // when
+        JsonObject result = KubernetesProtobuf.POD_LIST.decode(kubernetesObject("v1", "PodList", podList));
+
+        // then
+        assertEquals(Json.parse("{\"items\":[{\"metadata\":{\"name\":\"hazelcast-0\"},\"spec\":{},\"status\":{}}]}"),
+                result);
+    }
+
+    @Test
+    public void decodesEndpoints() {
+        // given
+        ProtobufWriter endpoints = new ProtobufWriter()
+                .message(1, new ProtobufWriter().string(1, "hazelcast"))
+                .message(2, new ProtobufWriter()
+                        .message(1, new ProtobufWriter()
+                                .string(1, "10.0.0.1")
+                                .message(2, new ProtobufWriter().string(1, "Pod").string(3, "hazelcast-0"))
+                                .string(4, "node-1"))
+                        .message(2, new ProtobufWriter().string(1, "10.0.0.2"))
+                        .message(3, new ProtobufWriter().string(1, "hazelcast").varint(2, 5701).string(3, "TCP")));
+
+        // when
+        JsonObject result = KubernetesProtobuf.ENDPOINTS_OBJECT.decode(kubernetesObject("v1", "Endpoints", endpoints));
+
+        // then
+        assertEquals(Json.parse("{\"metadata\":{\"name\":\"hazelcast\"},\"subsets\":[{"
+                + "\"addresses\":[{\"ip\":\"10.0.0.1\",\"targetRef\":{\"kind\":\"Pod\",\"name\":\"hazelcast-0\"},"
+                + "\"nodeName\":\"node-1\"}],"
+                + "\"notReadyAddresses\":[{\"ip\":\"10.0.0.2\"}],"
+                + "\"ports\":[{\"name\":\"hazelcast\",\"port\":5701}]}]}"), result);
+    }
+
+    @Test
+    public void decodesServiceList() {
+        // given
+        ProtobufWriter service = new ProtobufWriter()
+                .message(1, new ProtobufWriter().string(1, "hazelcast-0"))
+                .message(2, new ProtobufWriter()
+                        .message(1, new ProtobufWriter()
+                                .string(2, "TCP")
+                                .varint(3, 5701)
+                                .message(4, new ProtobufWriter().varint(1, 0).varint(2, 5701))
+                                .varint(5, 31916))
+                        .string(4, "LoadBalancer"))
+                .message(3, new ProtobufWriter()
+                        .message(1, new ProtobufWriter()
+                                .message(1, new ProtobufWriter().string(1, "35.232.226.200"))));
+        ProtobufWriter serviceList = new ProtobufWriter().message(2, service);
+
+        // when
+        JsonObject result = KubernetesProtobuf.SERVICE_LIST.decode(kubernetesObject("v1", "ServiceList", serviceList));
+
+        // then
+        assertEquals(Json.parse("{\"items\":[{\"metadata\":{\"name\":\"hazelcast-0\"},"
+                + "\"spec\":{\"ports\":[{\"port\":5701,\"nodePort\":31916}]},"
+                + "\"status\":{\"loadBalancer\":{\"ingress\":[{\"ip\":\"35.232.226.200\"}]}}}]}"), result);
+    }
+
+    @Test
+    public void decodesNodeSkippingUnknownFields() {
+        // given
+        ProtobufWriter node = new ProtobufWriter()
+                .message(1, new ProtobufWriter().string(1, "node-1").fixed64(99, 7L))
+                .message(2, new ProtobufWriter().string(3, "gce://project/zone/node-1"))
+                .message(3, new ProtobufWriter()
+                        .message(5, new ProtobufWriter().string(1, "InternalIP").string(2, "10.0.1.1"))
+                        .message(5, new ProtobufWriter().string(1, "ExternalIP").string(2, "35.232.226.201"))
+                        .message(13, new ProtobufWriter().string(1, "hazelcast/hazelcast:4.2").varint(2, 1 << 28)));
+
+        // when
+        JsonObject result = KubernetesProtobuf.NODE_OBJECT.decode(kubernetesObject("v1", "Node", node));
+
+        // then
+        assertEquals(Json.parse("{\"metadata\":{\"name\":\"node-1\"},\"status\":{\"addresses\":["
+                + "{\"type\":\"InternalIP\",\"address\":\"10.0.1.1\"},"
+                + "{\"type\":\"ExternalIP\",\"address\":\"35.232.226.201\"}]}}"), result);
+    }
+
+    @Test(expected = KubernetesClientException.class)
+    public void failsOnMissingMagicNumber() {
+        KubernetesProtobuf.NODE_OBJECT.decode("{\"kind\":\"Node\"}".getBytes());
+    }
+
+    @Test(expected = KubernetesClientException.class)
+    public void failsOnTruncatedMessage() {
+        // given
+        byte[] node = kubernetesObject("v1", "Node", new ProtobufWriter()
+                .message(1, new ProtobufWriter().string(1, "node-1")));
+
+        // when
+        // cut the empty content encoding and content type fields and the end of the node name
+        KubernetesProtobuf.NODE_OBJECT.decode(Arrays.copyOf(node, node.length - 6));
+
+        // then
+        // throws exception
+    }
+}
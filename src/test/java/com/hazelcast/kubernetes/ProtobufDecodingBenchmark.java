@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding the same pods list from JSON with {@link SelectiveJsonParser} and from protobuf with
+ * {@link KubernetesProtobuf}.
+ * <p>
+ * The protobuf pods carry the same fields as the JSON ones of {@link JsonParsingBenchmark}, with the field numbers of
+ * {@code k8s.io/api/core/v1}, so the payload sizes (printed at setup) compare as they do for the real Kubernetes API.
+ * <p>
+ * Run with the {@link #main(String[])} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtobufDecodingBenchmark {
+    private static final SelectiveJsonParser PODS_LIST_PARSER = new SelectiveJsonParser("metadata.resourceVersion",
+            "metadata.continue", "items.metadata.name", "items.metadata.resourceVersion", "items.status.podIP",
+            "items.status.containerStatuses.ready", "items.spec.containers.ports.containerPort");
+
+    @Param({"1000", "10000"})
+    private int pods;
+
+    private byte[] json;
+    private byte[] protobuf;
+
+    @Setup
+    public void setUp() {
+        json = JsonParsingBenchmark.podsList(pods).getBytes(StandardCharsets.UTF_8);
+        protobuf = podsList(pods);
+        System.out.printf("%n%d pods: JSON %d bytes, protobuf %d bytes%n", pods, json.length, protobuf.length);
+    }
+
+    @Benchmark
+    public JsonObject json()
+            throws IOException {
+        return PODS_LIST_PARSER.read(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public JsonObject protobuf()
+            throws IOException {
+        return KubernetesProtobuf.POD_LIST.read(new ByteArrayInputStream(protobuf));
+    }
+
+    public static void main(String[] args)
+            throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProtobufDecodingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static byte[] podsList(int size) {
+        ProtobufWriter list = new ProtobufWriter().message(1, new ProtobufWriter().string(2, "4242"));
+        for (int i = 0; i < size; i++) {
+            list.message(2, pod(i));
+        }
+        return ProtobufWriter.kubernetesObject("v1", "PodList", list);
+    }
+
+    private static ProtobufWriter pod(int i) {
+        ProtobufWriter managedField = new ProtobufWriter()
+                .string(1, "kubelet")
+                .string(2, "Update")
+                .string(3, "v1")
+                .message(4, new ProtobufWriter().varint(1, 1601546400L))
+                .string(6, "FieldsV1")
+                .message(7, new ProtobufWriter().string(1, "{\"f:status\":{\"f:conditions\":{\"k:{\\\"type\\\":\\\"Ready\\\"}\":"
+                        + "{\".\":{},\"f:lastProbeTime\":{},\"f:status\":{}}},\"f:containerStatuses\":{},\"f:podIP\":{},"
+                        + "\"f:podIPs\":{\".\":{}}}}"));
+        ProtobufWriter metadata = new ProtobufWriter()
+                .string(1, "hazelcast-" + i)
+                .string(3, "default")
+                .string(5, String.format("8f2a4b6c-%08d", i))
+                .string(6, Integer.toString(i))
+                .message(11, new ProtobufWriter().string(1, "app").string(2, "hazelcast"))
+                .message(11, new ProtobufWriter().string(1, "statefulset.kubernetes.io/pod-name").string(2, "hazelcast-" + i))
+                .message(17, managedField)
+                .message(17, managedField);
+        ProtobufWriter container = new ProtobufWriter()
+                .string(1, "hazelcast")
+                .string(2, "hazelcast/hazelcast:4.2.2")
+                .message(6, new ProtobufWriter().string(1, "hazelcast").varint(3, 5701).string(4, "TCP"))
+                .message(7, new ProtobufWriter().string(1, "JAVA_OPTS")
+                        .string(2, "-Dhazelcast.config=/data/hazelcast/hazelcast.yaml -Xmx1g"))
+                .message(7, new ProtobufWriter().string(1, "POD_NAME").message(3, new ProtobufWriter()
+                        .message(1, new ProtobufWriter().string(1, "v1").string(2, "metadata.name"))))
+                .message(8, new ProtobufWriter()
+                        .message(1, new ProtobufWriter().string(1, "cpu").message(2, new ProtobufWriter().string(1, "1")))
+                        .message(1, new ProtobufWriter().string(1, "memory").message(2, new ProtobufWriter().string(1, "2Gi"))))
+                .message(10, new ProtobufWriter().message(1, new ProtobufWriter().message(2, new ProtobufWriter()
+                        .string(1, "/hazelcast/health/node-state")
+                        .message(2, new ProtobufWriter().varint(1, 0).varint(2, 5701)))));
+        ProtobufWriter spec = new ProtobufWriter()
+                .message(1, new ProtobufWriter().string(1, "hazelcast-storage").message(2, new ProtobufWriter()
+                        .message(19, new ProtobufWriter().message(1, new ProtobufWriter().string(1, "hazelcast-configuration"))
+                                .varint(3, 420))))
+                .message(1, new ProtobufWriter().string(1, "default-token").message(2, new ProtobufWriter()
+                        .message(6, new ProtobufWriter().string(1, "default-token-x8k2p").varint(3, 420))))
+                .message(2, container)
+                .string(10, "node-" + i % 10);
+        ProtobufWriter status = new ProtobufWriter()
+                .string(1, "Running")
+                .message(2, new ProtobufWriter().string(1, "Ready").string(2, "True"))
+                .message(2, new ProtobufWriter().string(1, "ContainersReady").string(2, "True"))
+                .string(5, "10.0.1." + i % 10)
+                .string(6, String.format("10.1.%d.%d", i / 250, i % 250))
+                .message(8, new ProtobufWriter()
+                        .string(1, "hazelcast")
+                        .bool(4, true)
+                        .varint(5, 0)
+                        .string(6, "hazelcast/hazelcast:4.2.2"));
+        return new ProtobufWriter().message(1, metadata).message(2, spec).message(3, status);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes protobuf messages the way the Kubernetes API encodes its objects, for testing {@link KubernetesProtobuf}.
+ */
+final class ProtobufWriter {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    /**
+     * Wraps {@code object} into the {@code runtime.Unknown} envelope prefixed with the Kubernetes magic number.
+     */
+    static byte[] kubernetesObject(String apiVersion, String kind, ProtobufWriter object) {
+        ProtobufWriter envelope = new ProtobufWriter()
+                .message(1, new ProtobufWriter().string(1, apiVersion).string(2, kind))
+                .bytes(2, object.toByteArray())
+                .string(3, "")
+                .string(4, "");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        result.write('k');
+        result.write('8');
+        result.write('s');
+        result.write(0);
+        byte[] bytes = envelope.toByteArray();
+        result.write(bytes, 0, bytes.length);
+        return result.toByteArray();
+    }
+
+    ProtobufWriter string(int field, String value) {
+        return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    ProtobufWriter varint(int field, long value) {
+        tag(field, 0);
+        writeVarint(value);
+        return this;
+    }
+
+    ProtobufWriter bool(int field, boolean value) {
+        return varint(field, value ? 1 : 0);
+    }
+
+    ProtobufWriter fixed64(int field, long value) {
+        tag(field, 1);
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (value >>> (8 * i)));
+        }
+        return this;
+    }
+
+    ProtobufWriter message(int field, ProtobufWriter message) {
+        return bytes(field, message.toByteArray());
+    }
+
+    ProtobufWriter bytes(int field, byte[] value) {
+        tag(field, 2);
+        writeVarint(value.length);
+        out.write(value, 0, value.length);
+        return this;
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private void tag(int field, int wireType) {
+        writeVarint((field << 3) | wireType);
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.kubernetes.KubernetesClient.EndpointAddress;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class PublicAddressCacheTest {
+    private static final EndpointAddress PRIVATE_ADDRESS = new EndpointAddress("192.168.0.25", 5701);
+    private static final EndpointAddress PUBLIC_ADDRESS = new EndpointAddress("35.232.226.200", 31916);
+
+    @Test
+    public void hit() {
+        // given
+        PublicAddressCache cache = new PublicAddressCache(60);
+        cache.put(PRIVATE_ADDRESS, PUBLIC_ADDRESS);
+
+        // when
+        EndpointAddress result = cache.get(new EndpointAddress("192.168.0.25", 5701));
+
+        // then
+        assertEquals(PUBLIC_ADDRESS, result);
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void miss() {
+        // given
+        PublicAddressCache cache = new PublicAddressCache(60);
+        cache.put(PRIVATE_ADDRESS, PUBLIC_ADDRESS);
+
+        // when
+        EndpointAddress result = cache.get(new EndpointAddress("192.168.0.26", 5701));
+
+        // then
+        assertNull(result);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void expired()
+            throws InterruptedException {
+        // given
+        PublicAddressCache cache = new PublicAddressCache(1);
+        cache.put(PRIVATE_ADDRESS, PUBLIC_ADDRESS);
+
+        // when
+        Thread.sleep(1100);
+        EndpointAddress result = cache.get(PRIVATE_ADDRESS);
+
+        // then
+        assertNull(result);
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void evictExpired()
+            throws InterruptedException {
+        // given
+        PublicAddressCache cache = new PublicAddressCache(1);
+        cache.put(PRIVATE_ADDRESS, PUBLIC_ADDRESS);
+        Thread.sleep(1100);
+        cache.put(new EndpointAddress("192.168.0.26", 5701), PUBLIC_ADDRESS);
+
+        // when
+        cache.evictExpired();
+
+        // then
+        assertEquals(1, cache.size());
+        assertNull(cache.get(PRIVATE_ADDRESS));
+    }
+
+    @Test
+    public void disabled() {
+        // given
+        PublicAddressCache cache = new PublicAddressCache(0);
+
+        // when
+        cache.put(PRIVATE_ADDRESS, PUBLIC_ADDRESS);
+
+        // then
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(PRIVATE_ADDRESS));
+        assertEquals(0, cache.size());
+    }
+}
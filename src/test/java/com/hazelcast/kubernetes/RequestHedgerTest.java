@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.kubernetes.RequestHedger.AbortableCall;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RequestHedgerTest {
+    private static final String RESULT = "result";
+    private static final String PODS_URL = "https://kubernetes.default.svc/api/v1/namespaces/default/pods";
+    private static final String NODE_URL = "https://kubernetes.default.svc/api/v1/nodes/node-1";
+
+    private RequestHedger hedger;
+
+    @After
+    public void tearDown() {
+        if (hedger != null) {
+            hedger.shutdown();
+        }
+    }
+
+    @Test
+    public void disabled() {
+        // when
+        RequestHedger disabledHedger = RequestHedger.create(0, 5);
+
+        // then
+        assertNull(disabledHedger);
+    }
+
+    @Test
+    public void hedgesSlowCallAndAbortsIt()
+            throws Exception {
+        // given
+        hedger = new RequestHedger(90, 100);
+        warmUp(NODE_URL);
+        FirstSlowCall firstSlowCall = new FirstSlowCall(3000);
+
+        // when
+        long startTimeMs = System.currentTimeMillis();
+        String result = hedger.hedged(NODE_URL, firstSlowCall).call();
+        long endTimeMs = System.currentTimeMillis();
+
+        // then
+        assertEquals(RESULT, result);
+        assertTrue(endTimeMs - startTimeMs < 2000);
+        assertEquals(1, hedger.getHedgedCalls());
+        assertEquals(1, hedger.getHedgeWins());
+        assertSame(Thread.currentThread(), firstSlowCall.firstCallThread.get());
+    }
+
+    @Test
+    public void hedgesByLatenciesOfSamePath()
+            throws Exception {
+        // given
+        hedger = new RequestHedger(90, 100);
+        warmUp(NODE_URL);
+
+        // when
+        String result = hedger.hedged(PODS_URL + "?limit=500", new FirstSlowCall(100)).call();
+
+        // then
+        assertEquals(RESULT, result);
+        assertEquals(0, hedger.getHedgedCalls());
+    }
+
+    @Test
+    public void doesNotHedgeOverBudget()
+            throws Exception {
+        // given
+        hedger = new RequestHedger(90, 0);
+        warmUp(NODE_URL);
+
+        // when
+        String result = hedger.hedged(NODE_URL, new FirstSlowCall(500)).call();
+
+        // then
+        assertEquals(RESULT, result);
+        assertEquals(0, hedger.getHedgedCalls());
+    }
+
+    @Test(expected = RestClientException.class)
+    public void failsWhenCallFails()
+            throws Exception {
+        // given
+        hedger = new RequestHedger(90, 100);
+        warmUp(NODE_URL);
+
+        // when
+        hedger.hedged(NODE_URL, new AbortableCall<String>() {
+            @Override
+            public String call(CompletableFuture<?> abortSignal) {
+                throw new RestClientException("Internal error", 500);
+            }
+        }).call();
+
+        // then
+        // throws exception
+    }
+
+    private void warmUp(String url)
+            throws Exception {
+        for (int i = 0; i < 20; i++) {
+            hedger.hedged(url, new AbortableCall<String>() {
+                @Override
+                public String call(CompletableFuture<?> abortSignal)
+                        throws InterruptedException {
+                    Thread.sleep(1);
+                    return RESULT;
+                }
+            }).call();
+        }
+    }
+
+    /**
+     * Call which is slow the first time, unless it is aborted.
+     */
+    private static final class FirstSlowCall
+            implements AbortableCall<String> {
+        private final long delayMs;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicReference<Thread> firstCallThread = new AtomicReference<Thread>();
+
+        private FirstSlowCall(long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public String call(CompletableFuture<?> abortSignal)
+                throws Exception {
+            if (calls.getAndIncrement() == 0) {
+                firstCallThread.set(Thread.currentThread());
+                if (abortSignal == null) {
+                    Thread.sleep(delayMs);
+                    return RESULT;
+                }
+                try {
+                    abortSignal.get(delayMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    return RESULT;
+                }
+                throw new RestClientException("Aborted", 0);
+            }
+            return RESULT;
+        }
+    }
+}
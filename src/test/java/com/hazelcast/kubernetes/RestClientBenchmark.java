@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSession;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.hazelcast.kubernetes.KubernetesConfig.readFileContents;
+
+/**
+ * Measures the latency of a single HTTPS GET made by {@link RestClient} against a local WireMock server.
+ * <p>
+ * {@code perCallConnection} approximates how each Kubernetes API call used to be made: it builds a new socket factory
+ * and, as it runs with the JDK keep-alive disabled, makes a new TCP connect and TLS handshake per call.
+ * {@code pooledConnection} reuses the shared socket factory, so connections are kept alive between calls.
+ * <p>
+ * Run with the {@link #main(String[])} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestClientBenchmark {
+    private static final String API_ENDPOINT = "/api/v1/namespaces/default/endpoints";
+    private static final String BODY_RESPONSE = "{\"kind\":\"EndpointsList\",\"items\":[]}";
+
+    private WireMockServer wireMockServer;
+    private String url;
+    private String caCertificate;
+
+    @Setup
+    public void setUp() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicHttpsPort().keystorePath(pathTo("keystore.jks")));
+        wireMockServer.start();
+        wireMockServer.stubFor(get(urlEqualTo(API_ENDPOINT)).willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE)));
+        HttpsURLConnection.setDefaultHostnameVerifier(new HostnameVerifier() {
+            public boolean verify(String hostname, SSLSession sslSession) {
+                return true;
+            }
+        });
+        url = String.format("https://localhost:%s%s", wireMockServer.httpsPort(), API_ENDPOINT);
+        caCertificate = readFileContents(pathTo("ca.crt"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dhttp.keepAlive=false")
+    public String perCallConnection() {
+        RestClient.buildSslSocketFactory(caCertificate);
+        return RestClient.create(url).withCaCertificates(caCertificate).get();
+    }
+
+    @Benchmark
+    public String pooledConnection() {
+        return RestClient.create(url).withCaCertificates(caCertificate).get();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException {
+        new Runner(new OptionsBuilder().include(RestClientBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static String pathTo(String filename) {
+        return new File(RestClientBenchmark.class.getClassLoader().getResource(filename).getFile()).getAbsolutePath();
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.kubernetes;
 
+import com.github.tomakehurst.wiremock.http.trafficlistener.WiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import org.junit.Before;
 import org.junit.Rule;
@@ -24,22 +25,39 @@ import org.junit.Test;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static com.hazelcast.kubernetes.KubernetesConfig.readFileContents;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class RestClientTest {
     private static final String API_ENDPOINT = "/some/endpoint";
     private static final String BODY_REQUEST = "some body request";
     private static final String BODY_RESPONSE = "some body response";
 
+    private final ConnectionCountingListener connectionListener = new ConnectionCountingListener();
+
     @Rule
     public WireMockRule wireMockRule = new WireMockRule(wireMockConfig()
             .dynamicHttpsPort()
             .keystorePath(pathTo("keystore.jks"))
+            .networkTrafficListener(connectionListener)
     );
 
     private String address;
@@ -90,6 +108,179 @@ public class RestClientTest {
         assertEquals(BODY_RESPONSE, result);
     }
 
+    @Test
+    public void getReusesConnection() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE)));
+        int openedBefore = connectionListener.openedConnections.get();
+
+        // when
+        String result1 = RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                .withCaCertificates(readFile("ca.crt"))
+                .get();
+        String result2 = RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                .withCaCertificates(readFile("ca.crt"))
+                .get();
+
+        // then
+        assertEquals(BODY_RESPONSE, result1);
+        assertEquals(BODY_RESPONSE, result2);
+        assertEquals(1, connectionListener.openedConnections.get() - openedBefore);
+    }
+
+    @Test
+    public void getWithReceivedBytesCounter() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE)));
+        AtomicLong receivedBytes = new AtomicLong();
+
+        // when
+        RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                .withCaCertificates(readFile("ca.crt"))
+                .withReceivedBytesCounter(receivedBytes)
+                .get();
+
+        // then
+        assertEquals(BODY_RESPONSE.length(), receivedBytes.get());
+    }
+
+    @Test
+    public void getWithRateLimiter() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE)));
+        ApiRateLimiter rateLimiter = new ApiRateLimiter(10, 1, 1);
+        AtomicLong waitNanos = new AtomicLong();
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                    .withCaCertificates(readFile("ca.crt"))
+                    .withRateLimiter(rateLimiter, waitNanos)
+                    .get();
+        }
+
+        // then
+        assertEquals(2, rateLimiter.getAcquired());
+        assertTrue(waitNanos.get() > 0);
+    }
+
+    @Test(expected = RestClientException.class)
+    public void getWithTimeout() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE).withFixedDelay(5000)));
+
+        // when
+        RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                .withCaCertificates(readFile("ca.crt"))
+                .withTimeoutMillis(200)
+                .get();
+
+        // then
+        // throws exception
+    }
+
+    @Test
+    public void getAbortedBySignal() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(200).withBody(BODY_RESPONSE).withFixedDelay(5000)));
+        final CompletableFuture<String> abortSignal = new CompletableFuture<String>();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                abortSignal.complete(BODY_RESPONSE);
+            }
+        }).start();
+
+        // when
+        long startTimeMs = System.currentTimeMillis();
+        RestClientException exception = null;
+        try {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                    .withCaCertificates(readFile("ca.crt"))
+                    .withAbortSignal(abortSignal)
+                    .get();
+        } catch (RestClientException e) {
+            exception = e;
+        }
+        long endTimeMs = System.currentTimeMillis();
+
+        // then
+        assertNotNull(exception);
+        assertTrue(endTimeMs - startTimeMs < 3000);
+    }
+
+    @Test
+    public void getGzipped() {
+        // given
+        byte[] gzippedBody = gzip(BODY_RESPONSE);
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .withHeader("Accept-Encoding", equalTo("gzip"))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Encoding", "gzip").withBody(gzippedBody)));
+        AtomicLong receivedBytes = new AtomicLong();
+        AtomicLong decodedBytes = new AtomicLong();
+
+        // when
+        String result = RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                .withCaCertificates(readFile("ca.crt"))
+                .withGzip(true)
+                .withReceivedBytesCounter(receivedBytes)
+                .withDecodedBytesCounter(decodedBytes)
+                .get();
+
+        // then
+        assertEquals(BODY_RESPONSE, result);
+        assertEquals(gzippedBody.length, receivedBytes.get());
+        assertEquals(BODY_RESPONSE.length(), decodedBytes.get());
+    }
+
+    @Test
+    public void getFailureWithGzippedMessage() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(403).withHeader("Content-Encoding", "gzip")
+                        .withBody(gzip("\"reason\":\"Forbidden\""))));
+
+        // when
+        RestClientException exception = null;
+        try {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                    .withCaCertificates(readFile("ca.crt"))
+                    .withGzip(true)
+                    .get();
+        } catch (RestClientException e) {
+            exception = e;
+        }
+
+        // then
+        assertEquals(403, exception.getHttpErrorCode());
+        assertTrue(exception.getMessage().contains("\"reason\":\"Forbidden\""));
+    }
+
+    @Test
+    public void sslSocketFactorySharedPerCaCertificate() {
+        // given
+        String caCertificate = readFile("ca.crt");
+
+        // when
+        SSLSocketFactory sslSocketFactory1 = RestClient.sslSocketFactory(caCertificate);
+        SSLSocketFactory sslSocketFactory2 = RestClient.sslSocketFactory(new String(caCertificate));
+        SSLSocketFactory rotatedSslSocketFactory = RestClient.sslSocketFactory(caCertificate + "\n");
+
+        // then
+        assertSame(sslSocketFactory1, sslSocketFactory2);
+        assertNotSame(sslSocketFactory1, rotatedSslSocketFactory);
+    }
+
     @Test(expected = RestClientException.class)
     public void getFailure() {
         // given
@@ -105,6 +296,48 @@ public class RestClientTest {
         // throw exception
     }
 
+    @Test
+    public void getFailureWithRetryAfter() {
+        // given
+        stubFor(get(urlEqualTo(API_ENDPOINT))
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "3").withBody("Too many requests")));
+
+        // when
+        RestClientException exception = null;
+        try {
+            RestClient.create(String.format("%s%s", address, API_ENDPOINT))
+                    .withCaCertificates(readFile("ca.crt"))
+                    .get();
+        } catch (RestClientException e) {
+            exception = e;
+        }
+
+        // then
+        assertEquals(429, exception.getHttpErrorCode());
+        assertEquals(3000, exception.getRetryAfterMillis());
+        assertTrue(exception.isRetryable());
+    }
+
+    @Test
+    public void retryAfterMillis() {
+        // given
+        long nowMillis = 1445412480000L;
+
+        // when
+        long seconds = RestClient.retryAfterMillis("120", nowMillis);
+        long httpDate = RestClient.retryAfterMillis("Wed, 21 Oct 2015 07:30:00 GMT", nowMillis);
+        long pastHttpDate = RestClient.retryAfterMillis("Wed, 21 Oct 2015 07:00:00 GMT", nowMillis);
+        long invalid = RestClient.retryAfterMillis("soon", nowMillis);
+        long missing = RestClient.retryAfterMillis(null, nowMillis);
+
+        // then
+        assertEquals(120000, seconds);
+        assertEquals(120000, httpDate);
+        assertEquals(0, pastHttpDate);
+        assertEquals(RestClientException.NO_RETRY_AFTER, invalid);
+        assertEquals(RestClientException.NO_RETRY_AFTER, missing);
+    }
+
     @Test
     public void postSuccess() {
         // given
@@ -122,6 +355,18 @@ public class RestClientTest {
         assertEquals(BODY_RESPONSE, result);
     }
 
+    private static byte[] gzip(String body) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try {
+            GZIPOutputStream gzip = new GZIPOutputStream(result);
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+            gzip.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return result.toByteArray();
+    }
+
     private String readFile(String filename) {
         return readFileContents(pathTo(filename));
     }
@@ -129,4 +374,29 @@ public class RestClientTest {
     private String pathTo(String filename) {
         return new File(getClass().getClassLoader().getResource(filename).getFile()).getAbsolutePath();
     }
+
+    /**
+     * Counts the connections accepted by the server.
+     */
+    private static final class ConnectionCountingListener
+            implements WiremockNetworkTrafficListener {
+        private final AtomicInteger openedConnections = new AtomicInteger();
+
+        @Override
+        public void opened(Socket socket) {
+            openedConnections.incrementAndGet();
+        }
+
+        @Override
+        public void incoming(Socket socket, ByteBuffer bytes) {
+        }
+
+        @Override
+        public void outgoing(Socket socket, ByteBuffer bytes) {
+        }
+
+        @Override
+        public void closed(Socket socket) {
+        }
+    }
 }
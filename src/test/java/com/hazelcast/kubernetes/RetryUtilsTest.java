@@ -20,6 +20,8 @@ import com.hazelcast.core.HazelcastException;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 import static com.hazelcast.kubernetes.RetryUtils.BACKOFF_MULTIPLIER;
@@ -94,19 +96,91 @@ public class RetryUtilsTest {
     }
 
     @Test
-    public void retryRetriesWaitExponentialBackoff()
+    public void jitteredBackoffWithinExponentialBackoff() {
+        // given
+        long maxIntervalMs = (long) (BACKOFF_MULTIPLIER * INITIAL_BACKOFF_MS);
+        Set<Long> intervals = new HashSet<Long>();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            intervals.add(RetryUtils.jitteredBackoffIntervalForRetry(2));
+        }
+
+        // then
+        for (long interval : intervals) {
+            assertTrue(interval >= 0 && interval <= maxIntervalMs);
+        }
+        assertTrue(intervals.size() > 1);
+    }
+
+    @Test
+    public void retryWaitsRetryAfter()
             throws Exception {
         // given
-        double twoBackoffIntervalsMs = INITIAL_BACKOFF_MS + (BACKOFF_MULTIPLIER * INITIAL_BACKOFF_MS);
-        given(callable.call()).willThrow(new RuntimeException()).willThrow(new RuntimeException()).willReturn(RESULT);
+        given(callable.call()).willThrow(new RestClientException("Too many requests", 429, 200)).willReturn(RESULT);
 
         // when
         long startTimeMs = System.currentTimeMillis();
-        RetryUtils.retry(callable, 5, Collections.<String>emptyList());
+        String result = RetryUtils.retry(callable, RETRIES, Collections.<String>emptyList());
         long endTimeMs = System.currentTimeMillis();
 
         // then
-        assertTrue(twoBackoffIntervalsMs < (endTimeMs - startTimeMs));
+        assertEquals(RESULT, result);
+        assertTrue(endTimeMs - startTimeMs >= 200);
+        verify(callable, times(2)).call();
+    }
+
+    @Test
+    public void retryStopsBeforeRoundDeadline()
+            throws Exception {
+        // given
+        given(callable.call()).willThrow(new RestClientException("Service unavailable", 503, 1000)).willReturn(RESULT);
+        DiscoveryRound round = new DiscoveryRound(200);
+
+        // when
+        RestClientException exception = null;
+        try {
+            RetryUtils.retry(callable, 5, Collections.<String>emptyList(), round);
+        } catch (RestClientException e) {
+            exception = e;
+        }
+
+        // then
+        assertEquals(503, exception.getHttpErrorCode());
+        verify(callable).call();
+    }
+
+    @Test
+    public void retryRetryableHttpStatus()
+            throws Exception {
+        // given
+        given(callable.call()).willThrow(new RestClientException("Service unavailable", 503, 0)).willReturn(RESULT);
+
+        // when
+        String result = RetryUtils.retry(callable, RETRIES, asList(NON_RETRYABLE_KEYWORD));
+
+        // then
+        assertEquals(RESULT, result);
+        verify(callable, times(2)).call();
+    }
+
+    @Test
+    public void retryNonRetryableHttpStatus()
+            throws Exception {
+        // given
+        given(callable.call()).willThrow(new RestClientException("Forbidden", 403)).willReturn(RESULT);
+
+        // when
+        RestClientException exception = null;
+        try {
+            RetryUtils.retry(callable, RETRIES, Collections.<String>emptyList());
+        } catch (RestClientException e) {
+            exception = e;
+        }
+
+        // then
+        assertEquals(403, exception.getHttpErrorCode());
+        verify(callable).call();
     }
 
     @Test(expected = NonRetryableException.class)
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.kubernetes;
+
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.internal.json.ParseException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SelectiveJsonParserTest {
+
+    @Test
+    public void keepsOnlySelectedFields() {
+        // given
+        String json = "{\"kind\":\"PodList\",\"metadata\":{\"resourceVersion\":\"7\",\"selfLink\":\"/api\"},"
+                + "\"items\":[{\"metadata\":{\"name\":\"pod-1\",\"managedFields\":[{\"manager\":\"kubelet\"}]},"
+                + "\"status\":{\"podIP\":\"10.0.0.1\",\"conditions\":[{\"type\":\"Ready\"}]}}]}";
+        SelectiveJsonParser parser = new SelectiveJsonParser("metadata.resourceVersion", "items.metadata.name",
+                "items.status.podIP");
+
+        // when
+        JsonObject result = parser.parse(json);
+
+        // then
+        assertEquals(Json.parse("{\"metadata\":{\"resourceVersion\":\"7\"},"
+                + "\"items\":[{\"metadata\":{\"name\":\"pod-1\"},\"status\":{\"podIP\":\"10.0.0.1\"}}]}"), result);
+    }
+
+    @Test
+    public void keepsWholeSubtreeOfSelectedField() {
+        // given
+        String json = "{\"subsets\":[{\"addresses\":[{\"ip\":\"10.0.0.1\",\"nodeName\":\"node-1\"}],"
+                + "\"ports\":[{\"port\":5701,\"protocol\":\"TCP\"}]}],\"metadata\":{\"name\":\"hazelcast\"}}";
+        SelectiveJsonParser parser = new SelectiveJsonParser("subsets");
+
+        // when
+        JsonObject result = parser.parse(json);
+
+        // then
+        assertEquals(Json.parse("{\"subsets\":[{\"addresses\":[{\"ip\":\"10.0.0.1\",\"nodeName\":\"node-1\"}],"
+                + "\"ports\":[{\"port\":5701,\"protocol\":\"TCP\"}]}]}"), result);
+    }
+
+    @Test
+    public void keepsArraySizes() {
+        // given
+        String json = "{\"items\":[{\"status\":{\"podIP\":\"10.0.0.1\"}},{\"spec\":{}},{\"status\":{\"phase\":\"Pending\"}}]}";
+        SelectiveJsonParser parser = new SelectiveJsonParser("items.status.podIP");
+
+        // when
+        JsonObject result = parser.parse(json);
+
+        // then
+        assertEquals(Json.parse("{\"items\":[{\"status\":{\"podIP\":\"10.0.0.1\"}},{},{\"status\":{}}]}"), result);
+    }
+
+    @Test
+    public void keepsValuesOfAllTypes() {
+        // given
+        String json = "{\"a\":{\"string\":\"s\",\"number\":1.5,\"true\":true,\"false\":false,\"null\":null},\"b\":2}";
+        SelectiveJsonParser parser = new SelectiveJsonParser("a.string", "a.number", "a.true", "a.false", "a.null");
+
+        // when
+        JsonObject result = parser.parse(json);
+
+        // then
+        assertEquals(Json.parse("{\"a\":{\"string\":\"s\",\"number\":1.5,\"true\":true,\"false\":false,\"null\":null}}"),
+                result);
+    }
+
+    @Test(expected = ParseException.class)
+    public void failsOnInvalidJson() {
+        new SelectiveJsonParser("items").parse("{\"items\":[");
+    }
+}